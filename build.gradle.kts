@@ -10,13 +10,20 @@ plugins {
     id("com.github.johnrengelman.shadow") version "8.1.1"
     id("com.diffplug.spotless") version "7.0.3"
     id("io.sentry.jvm.gradle") version "5.4.0"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.geocode.search"
 version = "1.0.2"
 
 java {
-    sourceCompatibility = JavaVersion.VERSION_17
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(21))
+    }
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.release.set(17)
 }
 
 repositories {
@@ -30,12 +37,21 @@ dependencies {
     implementation("org.geotools:gt-swing:$geotoolsVersion")
     implementation("org.geotools:gt-shapefile:$geotoolsVersion")
     implementation("org.geotools:gt-geojson-store:$geotoolsVersion")
+    implementation("org.geotools:gt-geopkg:$geotoolsVersion")
+    implementation("org.geotools:gt-epsg-hsql:$geotoolsVersion")
     implementation("org.postgresql:postgresql:$postgresVersion")
     implementation("commons-cli:commons-cli:1.9.0")
     implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-yaml:2.19.0")
     implementation("org.apache.logging.log4j:log4j-core:$log4jVersion")
     implementation("org.apache.logging.log4j:log4j-api:$log4jVersion")
     implementation("org.apache.logging.log4j:log4j-slf4j2-impl:$log4jVersion")
+    testImplementation(platform("org.junit:junit-bom:5.11.4"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+tasks.test {
+    useJUnitPlatform()
 }
 
 tasks.jar {
@@ -78,6 +94,19 @@ sourceSets {
     }
 }
 
+jmh {
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results-${project.version}.json"))
+}
+
+tasks.register<JavaExec>("jmhScaling") {
+    description = "Measures the shapefile lookup throughput from 1 thread up to the available cores"
+    group = "benchmark"
+    classpath = files(tasks.named<Jar>("jmhJar").flatMap { it.archiveFile })
+    mainClass.set("com.geocode.search.service.intersect.shapefile.ShapeIndexScalingBenchmark")
+}
+
 spotless {
     java {
         target("**/*.java")
@@ -1,2 +1,5 @@
-rootProject.name = "geo-tools"
+plugins {
+    id("org.gradle.toolchains.foojay-resolver-convention") version "0.8.0"
+}
 
+rootProject.name = "geo-tools"
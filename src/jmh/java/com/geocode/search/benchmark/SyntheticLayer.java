@@ -0,0 +1,93 @@
+package com.geocode.search.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.Map;
+import org.geotools.data.DefaultTransaction;
+import org.geotools.data.Transaction;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.shapefile.ShapefileDataStore;
+import org.geotools.data.shapefile.ShapefileDataStoreFactory;
+import org.geotools.data.simple.SimpleFeatureStore;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * Synthetic polygon layers generated at setup, so that every run and every version measures the same data.
+ * A layer is a square grid of cells, each one holding a square polygon shrunk by a gap on every side.
+ */
+public class SyntheticLayer {
+
+    public static final double CELL_SIZE = 0.01;
+    public static final String ID = "ID";
+    public static final String NAME = "NAME";
+
+    private SyntheticLayer() {}
+
+    /**
+     * Method used to build the features of a layer
+     * @param cells number of cells on each side of the grid
+     * @param gap distance between a polygon and the border of its cell
+     * @return features of the layer
+     */
+    public static ListFeatureCollection grid(int cells, double gap) {
+        SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
+        typeBuilder.setName("grid_" + cells);
+        typeBuilder.add("the_geom", Polygon.class);
+        typeBuilder.add(ID, Integer.class);
+        typeBuilder.length(32).add(NAME, String.class);
+        SimpleFeatureType featureType = typeBuilder.buildFeatureType();
+
+        GeometryFactory geometryFactory = new GeometryFactory();
+        ListFeatureCollection features = new ListFeatureCollection(featureType);
+        for (int row = 0; row < cells; row++) {
+            for (int column = 0; column < cells; column++) {
+                int id = row * cells + column;
+                Envelope polygon = new Envelope(
+                        column * CELL_SIZE + gap,
+                        (column + 1) * CELL_SIZE - gap,
+                        row * CELL_SIZE + gap,
+                        (row + 1) * CELL_SIZE - gap);
+                features.add(SimpleFeatureBuilder.build(
+                        featureType,
+                        new Object[] {geometryFactory.toGeometry(polygon), id, "Cell " + row + "-" + column},
+                        featureType.getTypeName() + "." + id));
+            }
+        }
+        return features;
+    }
+
+    /**
+     * Method used to write a layer as a shapefile in a temporary directory
+     * @param cells number of cells on each side of the grid
+     * @param gap distance between a polygon and the border of its cell
+     * @return path of the .shp file
+     * @throws IOException if the shapefile cannot be written
+     */
+    public static File shapefile(int cells, double gap) throws IOException {
+        ListFeatureCollection features = grid(cells, gap);
+        File directory = Files.createTempDirectory("geo-tools-jmh").toFile();
+        File file = new File(directory, features.getSchema().getTypeName() + ".shp");
+
+        ShapefileDataStore dataStore = (ShapefileDataStore) new ShapefileDataStoreFactory()
+                .createNewDataStore(Map.<String, Serializable>of("url", file.toURI().toURL()));
+        try {
+            dataStore.createSchema(features.getSchema());
+            SimpleFeatureStore store = (SimpleFeatureStore) dataStore.getFeatureSource(dataStore.getTypeNames()[0]);
+            try (Transaction transaction = new DefaultTransaction("create")) {
+                store.setTransaction(transaction);
+                store.addFeatures(features);
+                transaction.commit();
+            }
+        } finally {
+            dataStore.dispose();
+        }
+        return file;
+    }
+}
@@ -0,0 +1,97 @@
+package com.geocode.search.service;
+
+import com.geocode.search.benchmark.SyntheticLayer;
+import com.geocode.search.cli.Parameters;
+import com.geocode.search.service.input.Candidate;
+import com.geocode.search.service.input.CoordinateScanner;
+import com.geocode.search.service.output.IntersectResult;
+import com.geocode.search.settings.ShapefileLayer;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.opengis.feature.simple.SimpleFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of the input records and formatting of the output rows, without any lookup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessBenchmark {
+
+    private static final int RECORDS = 1024;
+
+    private final Process process = new Process();
+    private final String[] lines = new String[RECORDS];
+    private final IntersectResult[] results = new IntersectResult[RECORDS];
+    private final StringBuilder output = new StringBuilder(1 << 16);
+    private int index;
+
+    @Setup
+    public void setup() {
+        Parameters parameters = new Parameters();
+        parameters.getFileSettings().setDelimiter(";");
+        parameters.getFileSettings().setColumnX(2);
+        parameters.getFileSettings().setColumnY(3);
+        parameters.getFileSettings().setCoordinateType(4326);
+        parameters.getFileSettings().setCoordinateScanner(new CoordinateScanner(";", 2, 3));
+        ArrayList<String> columns = new ArrayList<>(List.of(SyntheticLayer.ID, SyntheticLayer.NAME));
+        parameters
+                .getIntersectSettings()
+                .getShapefileLayers()
+                .add(new ShapefileLayer(new File("grid.shp"), columns, 0, false, null));
+        process.setParameters(parameters);
+
+        List<SimpleFeature> features = new ArrayList<>();
+        ListFeatureCollection grid = SyntheticLayer.grid(10, 0);
+        try (SimpleFeatureIterator iterator = grid.features()) {
+            while (iterator.hasNext()) {
+                features.add(iterator.next());
+            }
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < RECORDS; i++) {
+            lines[i] = String.format(
+                    Locale.ROOT, "%d;\"Via Roma %d\";%.6f;%.6f", i, i, random.nextDouble() * 10, random.nextDouble() * 40);
+            IntersectResult result = new IntersectResult();
+            if (i % 4 != 0) {
+                result.getLayerElements().add(List.of(features.get(random.nextInt(features.size()))));
+            } else {
+                result.getLayerElements().add(List.of());
+            }
+            results[i] = result;
+        }
+    }
+
+    @Benchmark
+    public Candidate readCoordinates() {
+        return process.readCoordinates(lines[index++ & (RECORDS - 1)]);
+    }
+
+    @Benchmark
+    public int formatShapefileRow() {
+        int position = index++ & (RECORDS - 1);
+        output.setLength(0);
+        process.generateShapefileOutput(results[position], lines[position], output);
+        return output.length();
+    }
+}
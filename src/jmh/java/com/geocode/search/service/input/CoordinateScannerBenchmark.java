@@ -0,0 +1,62 @@
+package com.geocode.search.service.input;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Run with the gc profiler (enabled in build.gradle.kts): gc.alloc.rate.norm of scan must be 0 B/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoordinateScannerBenchmark {
+
+    private static final int LINES = 1024;
+
+    private final String[] lines = new String[LINES];
+    private final Candidate candidate = new Candidate();
+    private CoordinateScanner coordinateScanner;
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        for (int i = 0; i < LINES; i++) {
+            double x = 6 + random.nextDouble() * 12;
+            double y = 36 + random.nextDouble() * 11;
+            lines[i] = String.format(
+                    Locale.ROOT, "%d;\"Via Roma, %d\";00100;ROMA;%.6f;%.6f;RM", i, i % 200, x, y);
+        }
+        coordinateScanner = new CoordinateScanner(";", 4, 5);
+    }
+
+    @Benchmark
+    public void scan(Blackhole blackhole) {
+        String line = lines[index++ & (LINES - 1)];
+        blackhole.consume(coordinateScanner.scan(line, candidate));
+        blackhole.consume(candidate.getCoordinateX());
+        blackhole.consume(candidate.getCoordinateY());
+    }
+
+    @Benchmark
+    public void split(Blackhole blackhole) {
+        String[] elements = lines[index++ & (LINES - 1)].split(";");
+        blackhole.consume(Double.parseDouble(elements[4]));
+        blackhole.consume(Double.parseDouble(elements[5]));
+    }
+}
@@ -0,0 +1,88 @@
+package com.geocode.search.service.intersect;
+
+import com.geocode.search.benchmark.SyntheticLayer;
+import com.geocode.search.service.input.Candidate;
+import com.geocode.search.service.output.IntersectResult;
+import com.geocode.search.settings.IntersectParams;
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookups on synthetic shapefiles of 100, 2500 and 40000 polygons, each benchmark runs in its own fork
+ * so the layers loaded by GeoTool do not leak between them.
+ * Hit points fall inside a polygon, near-miss points fall in the gap between polygons within maxDistance,
+ * far-miss points fall outside the layer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoToolBenchmark {
+
+    private static final int POINTS = 1024;
+    private static final double GAP = 0.0002;
+
+    @Param({"10", "50", "200"})
+    private int cells;
+
+    private GeoTool geoTool;
+    private final IntersectParams intersectParams = new IntersectParams(2, 2, 100, 1, 50);
+    private final Candidate[] hits = new Candidate[POINTS];
+    private final Candidate[] nearMisses = new Candidate[POINTS];
+    private final Candidate[] farMisses = new Candidate[POINTS];
+    private int index;
+
+    @Setup
+    public void setup() throws IOException {
+        geoTool = new GeoTool(SyntheticLayer.shapefile(cells, GAP).getPath(), "N");
+
+        SplittableRandom random = new SplittableRandom(42);
+        double cellSize = SyntheticLayer.CELL_SIZE;
+        for (int i = 0; i < POINTS; i++) {
+            double column = random.nextInt(cells) * cellSize;
+            double row = random.nextInt(cells) * cellSize;
+            hits[i] = new Candidate(column + cellSize / 2, row + cellSize / 2);
+            nearMisses[i] = new Candidate(column + GAP / 2, row + cellSize / 2);
+            farMisses[i] = new Candidate(column + 10, row + 10);
+        }
+    }
+
+    @Benchmark
+    public IntersectResult intersectHit() {
+        return geoTool.intersectShapefile(hits[index++ & (POINTS - 1)], new IntersectResult());
+    }
+
+    @Benchmark
+    public IntersectResult intersectMiss() {
+        return geoTool.intersectShapefile(nearMisses[index++ & (POINTS - 1)], new IntersectResult());
+    }
+
+    @Benchmark
+    public IntersectResult extractHit() {
+        return geoTool.extractDataFromShapefile(hits[index++ & (POINTS - 1)], intersectParams);
+    }
+
+    @Benchmark
+    public IntersectResult extractNearMiss() {
+        return geoTool.extractDataFromShapefile(nearMisses[index++ & (POINTS - 1)], intersectParams);
+    }
+
+    @Benchmark
+    public IntersectResult extractFarMiss() {
+        return geoTool.extractDataFromShapefile(farMisses[index++ & (POINTS - 1)], intersectParams);
+    }
+}
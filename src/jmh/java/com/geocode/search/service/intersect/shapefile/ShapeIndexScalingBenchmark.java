@@ -0,0 +1,128 @@
+package com.geocode.search.service.intersect.shapefile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * Lookups on a layer shared by all the benchmark threads.
+ * Run main (./gradlew jmhScaling) to measure the throughput from 1 thread up to the available cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShapeIndexScalingBenchmark {
+
+    private static final int CELLS = 200;
+    private static final double CELL_SIZE = 0.05;
+
+    private ShapeIndex shapeIndex;
+
+    @State(Scope.Thread)
+    public static class Points {
+        private final SplittableRandom random = new SplittableRandom();
+
+        double next() {
+            return random.nextDouble() * CELLS * CELL_SIZE;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
+        typeBuilder.setName("cells");
+        typeBuilder.add("the_geom", Polygon.class);
+        typeBuilder.add("ID", Integer.class);
+        SimpleFeatureType featureType = typeBuilder.buildFeatureType();
+
+        GeometryFactory geometryFactory = new GeometryFactory();
+        ListFeatureCollection features = new ListFeatureCollection(featureType);
+        for (int row = 0; row < CELLS; row++) {
+            for (int column = 0; column < CELLS; column++) {
+                Envelope cell = new Envelope(
+                        column * CELL_SIZE, (column + 1) * CELL_SIZE, row * CELL_SIZE, (row + 1) * CELL_SIZE);
+                features.add(SimpleFeatureBuilder.build(
+                        featureType,
+                        new Object[] {geometryFactory.toGeometry(cell), row * CELLS + column},
+                        "cells." + (row * CELLS + column)));
+            }
+        }
+        shapeIndex = new ShapeIndex(DataUtilities.source(features));
+    }
+
+    @Benchmark
+    public Object intersects(Points points) {
+        return shapeIndex.intersects(points.next(), points.next());
+    }
+
+    @Benchmark
+    public Object nearest(Points points) {
+        return shapeIndex.nearest(points.next(), points.next(), 3, CELL_SIZE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < cores; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(cores);
+
+        List<String> rows = new ArrayList<>();
+        double[] baseline = new double[2];
+        for (int threads : threadCounts) {
+            Collection<RunResult> results = new Runner(new OptionsBuilder()
+                            .include(ShapeIndexScalingBenchmark.class.getName())
+                            .threads(threads)
+                            .build())
+                    .run();
+            for (RunResult result : results) {
+                String benchmark = result.getParams().getBenchmark();
+                int index = benchmark.endsWith("intersects") ? 0 : 1;
+                double score = result.getPrimaryResult().getScore();
+                if (threads == 1) {
+                    baseline[index] = score;
+                }
+                rows.add(String.format(
+                        Locale.ROOT,
+                        "%-12s %8d %14.1f %8.2fx",
+                        benchmark.substring(benchmark.lastIndexOf('.') + 1),
+                        threads,
+                        score,
+                        score / baseline[index]));
+            }
+        }
+
+        System.out.printf(Locale.ROOT, "%-12s %8s %14s %9s%n", "benchmark", "threads", "ops/ms", "speedup");
+        rows.stream().sorted().forEach(System.out::println);
+    }
+}
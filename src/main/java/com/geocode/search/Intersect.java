@@ -4,10 +4,14 @@ import static com.geocode.search.message.Alert.*;
 
 import com.geocode.search.cli.Parameters;
 import com.geocode.search.logging.Logger;
+import com.geocode.search.metrics.MetricsReporter;
+import com.geocode.search.server.LookupServer;
+import com.geocode.search.service.BulkProcess;
 import com.geocode.search.service.Process;
 import com.geocode.search.service.intersect.GeoTool;
+import com.geocode.search.service.pipeline.Pipeline;
+import com.geocode.search.settings.ShapefileLayer;
 import io.sentry.Sentry;
-import java.util.ArrayList;
 import java.util.Properties;
 import org.apache.commons.cli.*;
 
@@ -68,11 +72,16 @@ public class Intersect extends Logger {
     private static void readInput(CommandLine cmd, Options options, HelpFormatter helper) {
         if (cmd.hasOption("help")) {
             printHelper(options, helper);
+        } else if (cmd.hasOption("index")) {
+            buildSnapshot(cmd);
+        } else if (cmd.hasOption("server")) {
+            startServer(cmd);
         } else {
             Parameters parameters = new Parameters();
             GeoTool geoTool = readConfiguration(parameters, cmd);
             launchProcessing(parameters, geoTool);
             parameters.closeAllConnection();
+            GeoTool.releaseLayers();
         }
     }
 
@@ -86,6 +95,9 @@ public class Intersect extends Logger {
 		options.addOption("v", "version", false, "Show the version of the project");
 		options.addOption("c", "config", true, "Indicates the path to the configuration file");
 		options.addOption("t", "thread", true, "Specify number of thread (default: 1)");
+		options.addOption("i", "index", false, "Build the index snapshot of the configured shapefile and exit");
+		options.addOption("r", "resume", false, "Resume the process from the last checkpoint of the output file");
+		options.addOption("s", "server", false, "Keep the layers loaded and answer lookups over a local HTTP endpoint");
 		options.addOption("h", "help", false, "Show arguments");
 		return options;
 	}
@@ -112,10 +124,29 @@ public class Intersect extends Logger {
      * @param helper helper formatter
      */
     private static void printHelper(Options options, HelpFormatter helper) {
-        helper.printHelp("[-v] [-c config] [-t thread]", options);
+        helper.printHelp("[-v] [-c config] [-t thread] [-i] [-r] [-s]", options);
         System.exit(0);
     }
 
+    /**
+     * Method used to build the index snapshot of the shapefile given in the configuration file
+     * @param cmd command line
+     */
+    // spotless:off
+	private static void buildSnapshot(CommandLine cmd) {
+		Parameters parameters = new Parameters();
+		if (!parameters.readIndexParameters(cmd) || !parameters.getIntersectSettings().getIntersectType().equals("shapefile")) {
+			printError(SHAPEFILE_PATH_INVALID.description);
+			System.exit(1);
+		}
+		for (ShapefileLayer layer : parameters.getIntersectSettings().getShapefileLayers()) {
+			if (!GeoTool.buildSnapshot(layer.getPath().toString(), layer.getData())) {
+				System.exit(1);
+			}
+		}
+	}
+	// spotless:on
+
     /**
      * Method used to read configuration parameters
      * @param parameters configuration parameters
@@ -124,48 +155,87 @@ public class Intersect extends Logger {
      */
     // spotless:off
 	private static GeoTool readConfiguration(Parameters parameters, CommandLine cmd) {
+		if (!parameters.readInputParameters(cmd)) {
+			System.exit(0);
+		}
+		return loadLayers(parameters);
+	}
+	// spotless:on
+
+    /**
+     * Method used to load the configured shapefile layers
+     * @param parameters configuration parameters
+     * @return geo tools elements
+     */
+    // spotless:off
+	private static GeoTool loadLayers(Parameters parameters) {
 		GeoTool geoTool = new GeoTool();
-		if (parameters.readInputParameters(cmd)) {
-			if (parameters.getIntersectSettings().getIntersectType().equals("shapefile")) {
-				geoTool = new GeoTool(parameters.getIntersectSettings().getShapefilePath().toString(), "N");
+		if (parameters.getIntersectSettings().getIntersectType().equals("shapefile")) {
+			for (ShapefileLayer layer : parameters.getIntersectSettings().getShapefileLayers()) {
+				geoTool = new GeoTool(layer.getPath().toString(), "N", layer.getGridResolution(), layer.isSnapshot(), layer.getData(), layer.getLayerName());
 			}
-		} else {
-			System.exit(0);
 		}
 		return geoTool;
 	}
 	// spotless:on
 
     /**
-     * Method used to launch the process
-     * @param parameters configuration parameters
-     * @param geoTool geo tools elements
+     * Method used to load the layers once and answer lookups over HTTP until the process is stopped
+     * @param cmd command line
      */
-    private static void launchProcessing(Parameters parameters, GeoTool geoTool) {
-        printInfo("Start process");
-        if (parameters.getFileSettings().getHeader().equalsIgnoreCase("S")) {
-            addHeader(parameters);
+    private static void startServer(CommandLine cmd) {
+        Parameters parameters = new Parameters();
+        if (!parameters.readServerParameters(cmd)) {
+            System.exit(0);
         }
-        ArrayList<Thread> threads = launchThreads(parameters, geoTool);
-        waitThreads(threads);
-        printInfo("End process");
+        GeoTool geoTool = loadLayers(parameters);
+        geoTool.setExitOnError(false);
+
+        MetricsReporter metricsReporter = new MetricsReporter(
+                parameters.getMetricsSettings(), parameters.getCacheSettings().getResultCache());
+        LookupServer server = new LookupServer(parameters, new Process(parameters, geoTool, false));
+        if (!server.start()) {
+            parameters.closeAllConnection();
+            GeoTool.releaseLayers();
+            System.exit(1);
+        }
+        metricsReporter.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            metricsReporter.stop();
+            parameters.closeAllConnection();
+            GeoTool.releaseLayers();
+            printInfo("Server stopped");
+        }));
     }
 
     /**
-     * Method used to launch threads
+     * Method used to launch the process
      * @param parameters configuration parameters
      * @param geoTool geo tools elements
-     * @return list of running threads
      */
-    private static ArrayList<Thread> launchThreads(Parameters parameters, GeoTool geoTool) {
-        ArrayList<Thread> threads = new ArrayList<>();
-        Process process = new Process(parameters, geoTool);
-        for (int i = 0; i < parameters.getThreads(); i++) {
-            Thread thread = new Thread(process);
-            threads.add(thread);
-            thread.start();
+    private static void launchProcessing(Parameters parameters, GeoTool geoTool) {
+        printInfo("Start process");
+        if (parameters.getCheckpointSettings().isResume()) {
+            printInfo("Resume process after record "
+                    + parameters.getCheckpointSettings().getResumeFrom().getRecords());
+        } else if (parameters.getFileSettings().getHeader().equalsIgnoreCase("S")) {
+            addHeader(parameters);
+        }
+        MetricsReporter metricsReporter = new MetricsReporter(
+                parameters.getMetricsSettings(), parameters.getCacheSettings().getResultCache());
+        metricsReporter.start();
+        if (parameters.getIntersectSettings().getIntersectType().equals("bulk")) {
+            new BulkProcess(parameters).run();
+        } else {
+            new Pipeline(parameters, new Process(parameters, geoTool)).run();
+        }
+        metricsReporter.stop();
+        if (parameters.getCacheSettings().getResultCache() != null) {
+            printInfo("Result cache: " + parameters.getCacheSettings().getResultCache().describe());
         }
-        return threads;
+        printInfo("End process");
     }
 
     /**
@@ -206,20 +276,4 @@ public class Intersect extends Logger {
             System.exit(1);
         }
     }
-
-    /**
-     * Method used to wait for all threads to complete processing
-     * @param threads active threads list
-     */
-    private static void waitThreads(ArrayList<Thread> threads) {
-        try {
-            for (Thread thread : threads) {
-                thread.join();
-            }
-        } catch (Exception e) {
-            printError(ERROR_WAIT_ALL_THREAD.description, e.getMessage());
-            Sentry.captureException(e);
-            System.exit(1);
-        }
-    }
 }
@@ -0,0 +1,90 @@
+package com.geocode.search.checkpoint;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Progress of a run: every input record before {@code inputOffset} has its output in the first
+ * {@code outputLength} bytes of the output file. The size and modification time of the input file
+ * identify the file the offsets refer to.
+ */
+@Getter
+@AllArgsConstructor
+public class Checkpoint {
+
+    private long inputOffset;
+    private long outputLength;
+    private long records;
+    private long inputSize;
+    private long inputModified;
+
+    /**
+     * Method used to read a checkpoint file
+     * @param file checkpoint path
+     * @return checkpoint stored in the file
+     * @throws IOException if the file cannot be read
+     * @throws NumberFormatException if the file does not contain a checkpoint
+     */
+    public static Checkpoint read(File file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(file.toPath())) {
+            properties.load(input);
+        }
+        return new Checkpoint(
+                Long.parseLong(properties.getProperty("inputOffset")),
+                Long.parseLong(properties.getProperty("outputLength")),
+                Long.parseLong(properties.getProperty("records")),
+                Long.parseLong(properties.getProperty("inputSize")),
+                Long.parseLong(properties.getProperty("inputModified")));
+    }
+
+    /**
+     * Method used to write the checkpoint to a temporary file and move it over the previous one,
+     * so a crash leaves either the old or the new checkpoint
+     * @param file checkpoint path
+     * @throws IOException if the file cannot be written
+     */
+    public void write(File file) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("inputOffset", Long.toString(inputOffset));
+        properties.setProperty("outputLength", Long.toString(outputLength));
+        properties.setProperty("records", Long.toString(records));
+        properties.setProperty("inputSize", Long.toString(inputSize));
+        properties.setProperty("inputModified", Long.toString(inputModified));
+
+        File partial = new File(file.getAbsoluteFile().getParentFile(), file.getName() + ".partial");
+        try (FileOutputStream output = new FileOutputStream(partial)) {
+            properties.store(output, null);
+            output.getFD().sync();
+        }
+        try {
+            Files.move(
+                    partial.toPath(),
+                    file.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(partial.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Method used to check whether the checkpoint refers to the current input and output files
+     * @param input input file
+     * @param output output file
+     * @return boolean value indicating whether the run can be resumed from the checkpoint
+     */
+    public boolean matches(File input, File output) {
+        return input.length() == inputSize
+                && input.lastModified() == inputModified
+                && output.length() >= outputLength;
+    }
+}
@@ -0,0 +1,85 @@
+package com.geocode.search.checkpoint;
+
+import static com.geocode.search.message.Alert.*;
+
+import com.geocode.search.logging.Logger;
+import com.geocode.search.service.output.OutputWriter;
+import com.geocode.search.settings.CheckpointSettings;
+import io.sentry.Sentry;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+public class CheckpointWriter extends Logger {
+
+    private final File file;
+    private final File inputFile;
+    private final OutputWriter outputFile;
+    private final long rowInterval;
+    private final long timeInterval;
+
+    private long inputOffset;
+    private long records;
+    private long pendingRecords;
+    private long lastCheckpoint;
+
+    /**
+     * Constructor
+     * @param settings checkpoint settings, including the checkpoint the run is resumed from
+     * @param inputPath input file path
+     * @param outputFile output file
+     */
+    public CheckpointWriter(CheckpointSettings settings, String inputPath, OutputWriter outputFile) {
+        this.file = new File(settings.getPath());
+        this.inputFile = new File(inputPath);
+        this.outputFile = outputFile;
+        this.rowInterval = settings.getRows();
+        this.timeInterval = TimeUnit.SECONDS.toNanos(settings.getInterval());
+        if (settings.isResume()) {
+            this.inputOffset = settings.getResumeFrom().getInputOffset();
+            this.records = settings.getResumeFrom().getRecords();
+        }
+        this.lastCheckpoint = System.nanoTime();
+    }
+
+    /**
+     * Method used to register the input consumed by a written chunk, saving a checkpoint when the row or
+     * the time interval has elapsed. The chunks must be committed in input order.
+     * @param offset first input byte after the chunk
+     * @param count number of records of the chunk
+     */
+    public void commit(long offset, int count) {
+        inputOffset = offset;
+        records += count;
+        pendingRecords += count;
+        if (pendingRecords >= rowInterval || System.nanoTime() - lastCheckpoint >= timeInterval) {
+            save();
+        }
+    }
+
+    /**
+     * Method used to save the last checkpoint at the end of the run
+     */
+    public void finish() {
+        if (pendingRecords > 0) {
+            save();
+        }
+    }
+
+    /**
+     * Method used to force the output to the storage device and record its length with the input offset
+     */
+    // spotless:off
+	private void save() {
+		try {
+			outputFile.sync();
+			new Checkpoint(inputOffset, outputFile.length(), records, inputFile.length(), inputFile.lastModified()).write(file);
+			pendingRecords = 0;
+			lastCheckpoint = System.nanoTime();
+		} catch (IOException e) {
+			printError(ERROR_WRITE_CHECKPOINT.description, e.getMessage());
+			Sentry.captureException(e);
+		}
+	}
+	// spotless:on
+}
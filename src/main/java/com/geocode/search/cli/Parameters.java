@@ -5,9 +5,14 @@ import static com.geocode.search.message.Alert.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.geocode.search.logging.Logger;
+import com.geocode.search.settings.CacheSettings;
+import com.geocode.search.settings.CheckpointSettings;
 import com.geocode.search.settings.FileSettings;
 import com.geocode.search.settings.IntersectParams;
 import com.geocode.search.settings.IntersectSettings;
+import com.geocode.search.settings.MetricsSettings;
+import com.geocode.search.settings.ProcessingSettings;
+import com.geocode.search.settings.ServerSettings;
 import com.geocode.search.yaml.YamlStructure;
 import io.sentry.Sentry;
 import java.io.*;
@@ -26,7 +31,13 @@ public class Parameters extends Logger {
     private FileSettings fileSettings = new FileSettings();
     private IntersectSettings intersectSettings = new IntersectSettings();
     private IntersectParams intersectParams = new IntersectParams();
+    private ProcessingSettings processingSettings = new ProcessingSettings();
+    private CacheSettings cacheSettings = new CacheSettings();
+    private MetricsSettings metricsSettings = new MetricsSettings();
+    private CheckpointSettings checkpointSettings = new CheckpointSettings();
+    private ServerSettings serverSettings = new ServerSettings();
     private int threads = 1;
+    private boolean resume = false;
 
     /**
      * Method used to read parameters from the configuration file
@@ -37,6 +48,7 @@ public class Parameters extends Logger {
         if (cmd.getOptionValue("thread") != null) {
             threads = Integer.parseInt(cmd.getOptionValue("thread"));
         }
+        resume = cmd.hasOption("resume");
 
         String configFilePath = cmd.getOptionValue("config");
         YamlStructure yamlStructure = readYaml(configFilePath);
@@ -48,6 +60,37 @@ public class Parameters extends Logger {
         }
     }
 
+    /**
+     * Method used to read only the intersect parameters, without opening the input and output files
+     * @param cmd command line
+     * @return boolean value indicating whether the parameter is correct
+     */
+    public boolean readIndexParameters(CommandLine cmd) {
+        YamlStructure yamlStructure = readYaml(cmd.getOptionValue("config"));
+        return yamlStructure != null && intersectSettings.readConfigFromYaml(yamlStructure);
+    }
+
+    /**
+     * Method used to read the parameters of the lookup server, without opening the input and output files
+     * @param cmd command line
+     * @return boolean value indicating whether the parameter is correct
+     */
+    public boolean readServerParameters(CommandLine cmd) {
+        if (cmd.getOptionValue("thread") != null) {
+            threads = Integer.parseInt(cmd.getOptionValue("thread"));
+        }
+
+        YamlStructure yaml = readYaml(cmd.getOptionValue("config"));
+        if (yaml == null || !fileSettings.readFormatFromYaml(yaml) || !intersectSettings.readConfigFromYaml(yaml)) {
+            return false;
+        }
+        intersectParams.readConfigFromYaml(yaml);
+        processingSettings.readConfigFromYaml(yaml);
+        cacheSettings.readConfigFromYaml(yaml, threads);
+        metricsSettings.readConfigFromYaml(yaml);
+        return serverSettings.readConfigFromYaml(yaml, threads);
+    }
+
     /**
      * Method used to read the .yaml configuration file
      * @param path configuration file path
@@ -71,23 +114,38 @@ public class Parameters extends Logger {
      * @return boolean value indicating whether the parameter is correct
      */
     private boolean readConfigFromYaml(YamlStructure yaml) {
-        boolean correctSettings = fileSettings.readConfigFromYaml(yaml);
+        boolean correctSettings = checkpointSettings.readConfigFromYaml(yaml, resume);
+        if (correctSettings) {
+            correctSettings = fileSettings.readConfigFromYaml(yaml, checkpointSettings.getResumeFrom());
+        }
         if (correctSettings) {
             correctSettings = intersectSettings.readConfigFromYaml(yaml);
         }
         if (correctSettings) {
             intersectParams.readConfigFromYaml(yaml);
+            processingSettings.readConfigFromYaml(yaml);
+            cacheSettings.readConfigFromYaml(yaml, threads);
+            metricsSettings.readConfigFromYaml(yaml);
         }
         return correctSettings;
     }
 
     /**
-     * Method used to close all open connections
+     * Method used to close all open connections, flushing and syncing the output file first
      */
     public void closeAllConnection() {
         try {
-            fileSettings.getInputFile().close();
-            fileSettings.getOutputFile().close();
+            if (fileSettings.getOutputFile() != null) {
+                fileSettings.getOutputFile().close();
+            }
+        } catch (Exception e) {
+            printError(ERROR_WRITE_FILE_OUTPUT.description, e.getMessage());
+            Sentry.captureException(e);
+        }
+        try {
+            if (fileSettings.getInputFile() != null) {
+                fileSettings.getInputFile().close();
+            }
             if (intersectSettings.getDatabaseConnection() != null) {
                 intersectSettings.getDatabaseConnection().closeConnection();
             }
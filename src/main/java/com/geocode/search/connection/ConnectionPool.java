@@ -0,0 +1,162 @@
+package com.geocode.search.connection;
+
+import static com.geocode.search.message.Alert.*;
+
+import com.geocode.search.logging.Logger;
+import io.sentry.Sentry;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+public class ConnectionPool extends Logger {
+
+    private static final long VALIDATION_IDLE_MILLIS = 1000;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final long idleTimeout;
+    private final int validationTimeout;
+    private final Semaphore leases;
+    private final LinkedBlockingDeque<IdleConnection> idleConnections = new LinkedBlockingDeque<>();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    /**
+     * Constructor
+     * @param url database connection url
+     * @param username database username
+     * @param password database password
+     * @param poolSize maximum number of open connections
+     * @param idleTimeout seconds after which an unused connection is closed
+     * @param validationTimeout seconds to wait when validating a connection
+     */
+    public ConnectionPool(
+            String url, String username, String password, int poolSize, int idleTimeout, int validationTimeout) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.idleTimeout = TimeUnit.SECONDS.toMillis(idleTimeout);
+        this.validationTimeout = validationTimeout;
+        this.leases = new Semaphore(poolSize, true);
+
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, idleTimeout / 2);
+        evictor.scheduleAtFixedRate(this::evictIdleConnections, period, period, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Method used to lease a connection, waiting if all connections are in use
+     * @return valid database connection
+     * @throws SQLException if a new connection cannot be opened
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public Connection acquire() throws SQLException, InterruptedException {
+        leases.acquire();
+        try {
+            IdleConnection idleConnection;
+            while ((idleConnection = idleConnections.pollFirst()) != null) {
+                if (isValid(idleConnection)) {
+                    return idleConnection.getConnection();
+                }
+                closeQuietly(idleConnection.getConnection());
+            }
+            return DriverManager.getConnection(url, username, password);
+
+        } catch (SQLException | RuntimeException e) {
+            leases.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Method used to give a leased connection back to the pool
+     * @param connection connection obtained from acquire
+     */
+    public void release(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        if (closed) {
+            closeQuietly(connection);
+        } else {
+            idleConnections.offerFirst(new IdleConnection(connection, System.currentTimeMillis()));
+        }
+        leases.release();
+    }
+
+    /**
+     * Method used to close the pool and all idle connections
+     */
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        IdleConnection idleConnection;
+        while ((idleConnection = idleConnections.pollFirst()) != null) {
+            closeQuietly(idleConnection.getConnection());
+        }
+    }
+
+    /**
+     * Method used to check whether an idle connection can be reused
+     * @param idleConnection idle connection
+     * @return boolean value indicating whether the connection is valid
+     */
+    private boolean isValid(IdleConnection idleConnection) {
+        try {
+            if (idleConnection.getConnection().isClosed()) {
+                return false;
+            }
+            if (System.currentTimeMillis() - idleConnection.getLastUsed() < VALIDATION_IDLE_MILLIS) {
+                return true;
+            }
+            return idleConnection.getConnection().isValid(validationTimeout);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Method used to close the connections unused for longer than the idle timeout
+     */
+    private void evictIdleConnections() {
+        long limit = System.currentTimeMillis() - idleTimeout;
+        IdleConnection idleConnection;
+        while ((idleConnection = idleConnections.peekLast()) != null && idleConnection.getLastUsed() < limit) {
+            if (idleConnections.removeLastOccurrence(idleConnection)) {
+                closeQuietly(idleConnection.getConnection());
+            }
+        }
+    }
+
+    /**
+     * Method used to close a connection ignoring errors
+     * @param connection connection to close
+     */
+    private void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (Exception e) {
+            printError(ERROR_CLOSE_DATABASE_CONNECTION.description, e.getMessage());
+            Sentry.captureException(e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class IdleConnection {
+        private final Connection connection;
+        private final long lastUsed;
+    }
+}
@@ -5,7 +5,10 @@ import static com.geocode.search.message.Alert.*;
 import com.geocode.search.logging.Logger;
 import io.sentry.Sentry;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Objects;
 import java.util.Properties;
 import lombok.AllArgsConstructor;
@@ -28,7 +31,13 @@ public class Database extends Logger {
     private String database;
     private String schema;
     private String table;
-    private Connection connection;
+    private int poolSize = 10;
+    private int idleTimeout = 600;
+    private int validationTimeout = 5;
+    private double searchRadius;
+    private int batchSize = 1;
+    private ConnectionPool connectionPool;
+    private volatile int srid = -1;
 
     /**
      * Constructor
@@ -59,27 +68,118 @@ public class Database extends Logger {
 	// spotless:on
 
     /**
-     * Method used to connect to postgresql database
+     * Method used to lease a connection to postgresql database from the pool
+     * @return database connection, null if it cannot be opened
      */
-    public void connect() {
-        connection = null;
+    public Connection connect() {
         try {
-            connection = DriverManager.getConnection(url, username, password);
+            return getPool().acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            printError(ERROR_CONNECTION_TO_DATABASE.description, e.getMessage());
+            return null;
         } catch (Exception e) {
             printError(ERROR_CONNECTION_TO_DATABASE.description, e.getMessage());
             Sentry.captureException(e);
+            return null;
+        }
+    }
+
+    /**
+     * Method used to give a connection back to the pool
+     * @param connection connection obtained from connect
+     */
+    public void release(Connection connection) {
+        if (connection != null) {
+            getPool().release(connection);
+        }
+    }
+
+    /**
+     * Method used to close a statement that failed and give its connection back to the pool
+     * @param connection connection obtained from connect
+     * @param statement statement prepared on the connection, null if it was not created
+     */
+    public void release(Connection connection, Statement statement) {
+        try {
+            if (statement != null) {
+                statement.close();
+            }
+        } catch (Exception e) {
+            printError(ERROR_CLOSE_DATABASE_CONNECTION.description, e.getMessage());
+            Sentry.captureException(e);
+        } finally {
+            release(connection);
         }
     }
 
     /**
-     * Method used to terminate the database connection
+     * Method used to close a query result and release the connection that produced it
+     * @param resultSet query result
+     */
+    public void closeResult(ResultSet resultSet) {
+        if (resultSet == null) {
+            return;
+        }
+        Connection connection = null;
+        try {
+            Statement statement = resultSet.getStatement();
+            connection = statement.getConnection();
+            resultSet.close();
+            statement.close();
+        } catch (Exception e) {
+            printError(ERROR_CLOSE_DATABASE_CONNECTION.description, e.getMessage());
+            Sentry.captureException(e);
+        } finally {
+            release(connection);
+        }
+    }
+
+    /**
+     * Method used to get the SRID of the geom column, read from the database the first time it is requested
+     * @param connection database connection
+     * @param defaultSrid SRID used when the column is not registered in geometry_columns
+     * @return SRID of the table geometries
+     * @throws SQLException if the catalog cannot be read
+     */
+    public int getSrid(Connection connection, int defaultSrid) throws SQLException {
+        int value = srid;
+        if (value < 0) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT srid FROM geometry_columns WHERE f_table_schema = ? AND f_table_name = ? AND f_geometry_column = 'geom'")) {
+                statement.setString(1, schema);
+                statement.setString(2, table);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    value = resultSet.next() ? resultSet.getInt(1) : 0;
+                }
+            }
+            srid = value;
+        }
+        return value > 0 ? value : defaultSrid;
+    }
+
+    /**
+     * Method used to terminate all the database connections
      */
     public void closeConnection() {
         try {
-            connection.close();
+            if (connectionPool != null) {
+                connectionPool.close();
+            }
         } catch (Exception e) {
             printError(ERROR_CLOSE_DATABASE_CONNECTION.description, e.getMessage());
             Sentry.captureException(e);
         }
     }
+
+    /**
+     * Method used to get the connection pool, creating it on first use
+     * @return connection pool
+     */
+    private synchronized ConnectionPool getPool() {
+        if (connectionPool == null) {
+            connectionPool = new ConnectionPool(url, username, password, poolSize, idleTimeout, validationTimeout);
+        }
+        return connectionPool;
+    }
 }
@@ -30,4 +30,20 @@ public class Logger {
     public static void printInfo(String message) {
         logger.info(message);
     }
+
+    /**
+     * Method used to print debug messages
+     * @param message message to show
+     */
+    public static void printDebug(String message) {
+        logger.debug(message);
+    }
+
+    /**
+     * Method used to check whether debug messages are printed
+     * @return boolean value indicating whether the debug level is enabled
+     */
+    public static boolean isDebugEnabled() {
+        return logger.isDebugEnabled();
+    }
 }
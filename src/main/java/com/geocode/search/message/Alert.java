@@ -11,13 +11,25 @@ public enum Alert {
     ERROR_CLOSE_DATABASE_CONNECTION("Error while closing the database connection."),
     ERROR_UPLOAD_SHAPEFILE("Error while uploading the shapefile."),
     ERROR_INTERSECT_SHAPEFILE("Error while intersecting the shapefile."),
+    ERROR_TRANSFORM_COORDINATES("Error while transforming the coordinates to the reference system of the shapefile."),
     ERROR_EXTRACT_DATA_SHAPEFILE("Error while extracting data from shapefile."),
+    ERROR_BUILD_SNAPSHOT("Error while building the index snapshot of the shapefile."),
+    ERROR_CLOSE_SNAPSHOT("Error while closing the index snapshot of the shapefile."),
     ERROR_INTERSECT_DATABASE("Error while intersecting a point on the database."),
     ERROR_READING_CSV("Error while reading the CSV file."),
     INVALID_COORDINATE_X_POSITION("Invalid coordinate X position."),
     INVALID_COORDINATE_Y_POSITION("Invalid coordinate Y position."),
     ERROR_EXTRACT_DATA_DATABASE("Error while extracting data from database."),
+    ERROR_BULK_INTERSECT_DATABASE("Error while joining the input file with the database."),
+    ERROR_VIRTUAL_THREAD_LOOKUP("Error while running a lookup on a virtual thread."),
     ERROR_WRITE_FILE_OUTPUT("Error while writing the output file."),
+    ERROR_WRITE_METRICS("Error while writing the metrics files."),
+    ERROR_WRITE_CHECKPOINT("Error while writing the checkpoint file."),
+    ERROR_READ_CHECKPOINT("Error while reading the checkpoint file."),
+    ERROR_START_SERVER("Error while starting the lookup server."),
+    ERROR_SERVER_REQUEST("Error while answering a request of the lookup server."),
+    SERVER_PORT_INVALID("Invalid server port parameter."),
+    CHECKPOINT_INVALID("The checkpoint does not refer to the current input and output files."),
     INPUT_PATH_INVALID("Invalid input_file parameter."),
     OUTPUT_FILE_INVALID("Invalid output file."),
     DELIMITER_INVALID("Invalid delimiter."),
@@ -25,6 +37,7 @@ public enum Alert {
     INTERSECT_TYPE_INVALID("Invalid intersect_type parameter."),
     INTERSECT_DATA_INVALID("Invalid intersect_data parameter."),
     SHAPEFILE_PATH_INVALID("Invalid shapefile_path parameter."),
+    GRID_RESOLUTION_INVALID("Invalid gridResolution parameter (maximum 4096)."),
     DATABASE_CONNECTION_INVALID("Invalid database connection parameters");
 
     public final String description;
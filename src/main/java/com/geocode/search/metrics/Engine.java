@@ -0,0 +1,14 @@
+package com.geocode.search.metrics;
+
+public enum Engine {
+    SHAPEFILE("shapefile"),
+    DATABASE("database"),
+    DATABASE_BATCH("database_batch"),
+    BULK("bulk");
+
+    public final String label;
+
+    Engine(String label) {
+        this.label = label;
+    }
+}
@@ -0,0 +1,139 @@
+package com.geocode.search.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Latency histogram with 4 buckets for each power of two between 1 microsecond (2^10 ns) and 68 seconds (2^36 ns),
+ * so a quantile is reported with an error below 25%. Every bucket is a LongAdder, recording never locks.
+ */
+public class LatencyHistogram {
+
+    private static final int MIN_EXPONENT = 10;
+    private static final int MAX_EXPONENT = 35;
+    private static final int SUB_BUCKETS = 4;
+    static final int BUCKETS = (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS + 1;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS + 1];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructor
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Method used to record a latency
+     * @param nanos latency in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts[bucketOf(nanos)].increment();
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Method used to take a copy of the counters, consistent enough for reporting
+     * @return copy of the counters
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[counts.length];
+        long count = 0;
+        for (int i = 0; i < counts.length; i++) {
+            copy[i] = counts[i].sum();
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, sum.sum(), max.get());
+    }
+
+    /**
+     * Method used to find the bucket of a latency
+     * @param nanos latency in nanoseconds
+     * @return bucket index, BUCKETS for latencies above the last bound
+     */
+    static int bucketOf(long nanos) {
+        if (nanos < 1L << MIN_EXPONENT) {
+            return 0;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS;
+        }
+        int subBucket = (int) (nanos >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+        return (exponent - MIN_EXPONENT) * SUB_BUCKETS + subBucket + 1;
+    }
+
+    /**
+     * Method used to get the upper bound of a bucket
+     * @param bucket bucket index
+     * @return latency in nanoseconds below which the recorded values fall in the bucket
+     */
+    static long upperBound(int bucket) {
+        if (bucket == 0) {
+            return 1L << MIN_EXPONENT;
+        }
+        int exponent = (bucket - 1) / SUB_BUCKETS + MIN_EXPONENT;
+        int subBucket = (bucket - 1) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket + 1) << (exponent - 2);
+    }
+
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Snapshot {
+
+        @Getter(AccessLevel.NONE)
+        private final long[] counts;
+
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        /**
+         * Method used to get the number of recorded values in a bucket
+         * @param bucket bucket index
+         * @return number of values
+         */
+        public long getBucketCount(int bucket) {
+            return counts[bucket];
+        }
+
+        /**
+         * Method used to get the average latency
+         * @return average in nanoseconds, 0 if nothing was recorded
+         */
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Method used to estimate a quantile from the buckets
+         * @param quantile quantile between 0 and 1
+         * @return upper bound of the bucket holding the quantile in nanoseconds, never above the maximum
+         */
+        public long quantile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
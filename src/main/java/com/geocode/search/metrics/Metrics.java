@@ -0,0 +1,133 @@
+package com.geocode.search.metrics;
+
+import com.geocode.search.service.cache.ResultCache;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters shared by every thread of a run. Recording only touches LongAdders and is skipped entirely
+ * when the metrics are disabled, so it can stay on in production.
+ * Parse is timed for each record, intersect and format for each lookup (a whole batch for batched database
+ * lookups), read, sort, transform and write for each chunk.
+ */
+public class Metrics {
+
+    private static final LatencyHistogram[] stages = new LatencyHistogram[Stage.values().length];
+    private static final LongAdder[] queries = new LongAdder[Engine.values().length];
+    private static final LongAdder records = new LongAdder();
+    private static volatile boolean enabled = false;
+    private static volatile ResultCache resultCache;
+    private static volatile long startTime = System.nanoTime();
+
+    static {
+        for (int i = 0; i < stages.length; i++) {
+            stages[i] = new LatencyHistogram();
+        }
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = new LongAdder();
+        }
+    }
+
+    private Metrics() {}
+
+    /**
+     * Method used to start measuring a run
+     * @param cache result cache whose hits are reported, null if the cache is disabled
+     * @param recording boolean value indicating whether latencies and lookups are recorded
+     */
+    public static void start(ResultCache cache, boolean recording) {
+        resultCache = cache;
+        startTime = System.nanoTime();
+        enabled = recording;
+    }
+
+    /**
+     * Method used to check whether the metrics are recorded
+     * @return boolean value indicating whether recording is enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Method used to read the clock at the start of a stage
+     * @return current time in nanoseconds, 0 when recording is disabled
+     */
+    public static long now() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Method used to record the time spent in a stage
+     * @param stage processing stage
+     * @param start time returned by now at the start of the stage
+     * @return current time, to be used as the start of the next stage
+     */
+    public static long record(Stage stage, long start) {
+        if (!enabled) {
+            return 0;
+        }
+        long end = System.nanoTime();
+        stages[stage.ordinal()].record(end - start);
+        return end;
+    }
+
+    /**
+     * Method used to count a lookup sent to an engine
+     * @param engine engine answering the lookup
+     */
+    public static void countQuery(Engine engine) {
+        if (enabled) {
+            queries[engine.ordinal()].increment();
+        }
+    }
+
+    /**
+     * Method used to count the processed records
+     * @param count number of records just processed
+     */
+    public static void countRecords(long count) {
+        records.add(count);
+    }
+
+    /**
+     * Method used to get the latencies of a stage
+     * @param stage processing stage
+     * @return copy of the histogram
+     */
+    public static LatencyHistogram.Snapshot getStage(Stage stage) {
+        return stages[stage.ordinal()].snapshot();
+    }
+
+    /**
+     * Method used to get the number of lookups sent to an engine
+     * @param engine engine answering the lookups
+     * @return number of lookups
+     */
+    public static long getQueries(Engine engine) {
+        return queries[engine.ordinal()].sum();
+    }
+
+    /**
+     * Method used to get the number of processed records
+     * @return number of records
+     */
+    public static long getRecords() {
+        return records.sum();
+    }
+
+    /**
+     * Method used to get the result cache whose hits are reported
+     * @return result cache, null if the cache is disabled
+     */
+    public static ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Method used to get the time elapsed since recording started
+     * @return elapsed time in nanoseconds
+     */
+    public static long getElapsed() {
+        return System.nanoTime() - startTime;
+    }
+}
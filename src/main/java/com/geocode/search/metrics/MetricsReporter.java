@@ -0,0 +1,224 @@
+package com.geocode.search.metrics;
+
+import static com.geocode.search.message.Alert.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geocode.search.logging.Logger;
+import com.geocode.search.service.cache.ResultCache;
+import com.geocode.search.settings.MetricsSettings;
+import io.sentry.Sentry;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class MetricsReporter extends Logger {
+
+    private static final String PREFIX = "geo_tools_";
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final MetricsSettings settings;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor
+     * @param settings metrics settings
+     * @param resultCache result cache whose hits are reported, null if the cache is disabled
+     */
+    public MetricsReporter(MetricsSettings settings, ResultCache resultCache) {
+        this.settings = settings;
+        Metrics.start(resultCache, settings.isEnabled());
+    }
+
+    /**
+     * Method used to start logging the metrics periodically
+     */
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = settings.getInterval();
+        scheduler.scheduleAtFixedRate(() -> printInfo(describe()), interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Method used to stop the periodic log, log the final metrics and write the metrics files
+     */
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        printInfo(describe());
+        if (!settings.isEnabled()) {
+            return;
+        }
+        File json = new File(settings.getPath() + ".json");
+        File prometheus = new File(settings.getPath() + ".prom");
+        try {
+            writeJson(json);
+            Files.writeString(prometheus.toPath(), toPrometheus(), StandardCharsets.UTF_8);
+            printInfo("Metrics written to " + json.getPath() + " and " + prometheus.getPath());
+        } catch (IOException e) {
+            printError(ERROR_WRITE_METRICS.description, e.getMessage());
+            Sentry.captureException(e);
+        }
+    }
+
+    /**
+     * Method used to describe the progress of the run in a log line
+     * @return processed records, throughput and, when recording is enabled, the latencies of each stage
+     */
+    public static String describe() {
+        StringBuilder description = new StringBuilder();
+        description.append(String.format(
+                Locale.ROOT, "Processed records: %d (%.0f records/s)", Metrics.getRecords(), recordsPerSecond()));
+        if (!Metrics.isEnabled()) {
+            return description.toString();
+        }
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram.Snapshot snapshot = Metrics.getStage(stage);
+            if (snapshot.getCount() > 0) {
+                description.append(String.format(
+                        Locale.ROOT,
+                        " %s p50=%.1fus p99=%.1fus",
+                        stage.label,
+                        snapshot.quantile(0.5) / 1e3,
+                        snapshot.quantile(0.99) / 1e3));
+            }
+        }
+        for (Engine engine : Engine.values()) {
+            if (Metrics.getQueries(engine) > 0) {
+                description.append(" ").append(engine.label).append("Queries=").append(Metrics.getQueries(engine));
+            }
+        }
+        ResultCache resultCache = Metrics.getResultCache();
+        if (resultCache != null) {
+            description.append(String.format(Locale.ROOT, " cacheHitRatio=%.2f%%", resultCache.getHitRatio() * 100));
+        }
+        return description.toString();
+    }
+
+    /**
+     * Method used to write the metrics as JSON
+     * @param file destination file
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeJson(File file) throws IOException {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("records", Metrics.getRecords());
+        metrics.put("elapsedSeconds", Metrics.getElapsed() / NANOS_PER_SECOND);
+        metrics.put("recordsPerSecond", recordsPerSecond());
+
+        Map<String, Object> stages = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram.Snapshot snapshot = Metrics.getStage(stage);
+            Map<String, Object> latencies = new LinkedHashMap<>();
+            latencies.put("count", snapshot.getCount());
+            latencies.put("meanMicros", snapshot.mean() / 1e3);
+            latencies.put("p50Micros", snapshot.quantile(0.5) / 1e3);
+            latencies.put("p90Micros", snapshot.quantile(0.9) / 1e3);
+            latencies.put("p99Micros", snapshot.quantile(0.99) / 1e3);
+            latencies.put("p999Micros", snapshot.quantile(0.999) / 1e3);
+            latencies.put("maxMicros", snapshot.getMax() / 1e3);
+            stages.put(stage.label, latencies);
+        }
+        metrics.put("stages", stages);
+
+        Map<String, Object> queries = new LinkedHashMap<>();
+        for (Engine engine : Engine.values()) {
+            queries.put(engine.label, Metrics.getQueries(engine));
+        }
+        metrics.put("queries", queries);
+
+        ResultCache resultCache = Metrics.getResultCache();
+        if (resultCache != null) {
+            Map<String, Object> cache = new LinkedHashMap<>();
+            cache.put("hits", resultCache.getHits());
+            cache.put("misses", resultCache.getMisses());
+            cache.put("evictions", resultCache.getEvictions());
+            cache.put("hitRatio", resultCache.getHitRatio());
+            metrics.put("cache", cache);
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, metrics);
+    }
+
+    /**
+     * Method used to format the metrics in the Prometheus text format
+     * @return metrics, ready for the textfile collector of the node exporter
+     */
+    // spotless:off
+	private static String toPrometheus() {
+		StringBuilder output = new StringBuilder();
+		String histogram = PREFIX + "stage_duration_seconds";
+		output.append("# HELP ").append(histogram).append(" Time spent in each processing stage, per chunk for read and write, per record otherwise\n");
+		output.append("# TYPE ").append(histogram).append(" histogram\n");
+		for (Stage stage : Stage.values()) {
+			LatencyHistogram.Snapshot snapshot = Metrics.getStage(stage);
+			long cumulative = 0;
+			for (int bucket = 0; bucket < LatencyHistogram.BUCKETS; bucket++) {
+				cumulative += snapshot.getBucketCount(bucket);
+				output.append(histogram).append("_bucket{stage=\"").append(stage.label).append("\",le=\"").append(seconds(LatencyHistogram.upperBound(bucket))).append("\"} ").append(cumulative).append('\n');
+			}
+			output.append(histogram).append("_bucket{stage=\"").append(stage.label).append("\",le=\"+Inf\"} ").append(snapshot.getCount()).append('\n');
+			output.append(histogram).append("_sum{stage=\"").append(stage.label).append("\"} ").append(seconds(snapshot.getSum())).append('\n');
+			output.append(histogram).append("_count{stage=\"").append(stage.label).append("\"} ").append(snapshot.getCount()).append('\n');
+		}
+
+		output.append("# HELP ").append(PREFIX).append("queries_total Lookups sent to each engine\n");
+		output.append("# TYPE ").append(PREFIX).append("queries_total counter\n");
+		for (Engine engine : Engine.values()) {
+			output.append(PREFIX).append("queries_total{engine=\"").append(engine.label).append("\"} ").append(Metrics.getQueries(engine)).append('\n');
+		}
+
+		appendMetric(output, "records_total", "counter", "Processed records", Metrics.getRecords());
+		appendMetric(output, "records_per_second", "gauge", "Processed records per second over the run", recordsPerSecond());
+		ResultCache resultCache = Metrics.getResultCache();
+		if (resultCache != null) {
+			appendMetric(output, "cache_hits_total", "counter", "Lookups answered by the result cache", resultCache.getHits());
+			appendMetric(output, "cache_misses_total", "counter", "Lookups not found in the result cache", resultCache.getMisses());
+			appendMetric(output, "cache_evictions_total", "counter", "Results evicted from the result cache", resultCache.getEvictions());
+		}
+		return output.toString();
+	}
+	// spotless:on
+
+    /**
+     * Method used to append a metric without labels in the Prometheus text format
+     * @param output metrics text
+     * @param name metric name without prefix
+     * @param type metric type (counter/gauge)
+     * @param help metric description
+     * @param value metric value
+     */
+    private static void appendMetric(StringBuilder output, String name, String type, String help, Number value) {
+        output.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        output.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+        output.append(PREFIX).append(name).append(' ').append(value).append('\n');
+    }
+
+    /**
+     * Method used to get the throughput of the run
+     * @return processed records per second since recording started
+     */
+    private static double recordsPerSecond() {
+        double elapsed = Metrics.getElapsed() / NANOS_PER_SECOND;
+        return elapsed > 0 ? Metrics.getRecords() / elapsed : 0;
+    }
+
+    /**
+     * Method used to convert nanoseconds to seconds for the Prometheus text format
+     * @param nanos duration in nanoseconds
+     * @return duration in seconds
+     */
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / NANOS_PER_SECOND);
+    }
+}
@@ -0,0 +1,17 @@
+package com.geocode.search.metrics;
+
+public enum Stage {
+    READ("read"),
+    SORT("sort"),
+    PARSE("parse"),
+    TRANSFORM("transform"),
+    INTERSECT("intersect"),
+    FORMAT("format"),
+    WRITE("write");
+
+    public final String label;
+
+    Stage(String label) {
+        this.label = label;
+    }
+}
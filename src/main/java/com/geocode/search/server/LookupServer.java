@@ -0,0 +1,259 @@
+package com.geocode.search.server;
+
+import static com.geocode.search.message.Alert.*;
+
+import com.geocode.search.cli.Parameters;
+import com.geocode.search.logging.Logger;
+import com.geocode.search.service.LookupException;
+import com.geocode.search.service.Process;
+import com.geocode.search.service.input.Candidate;
+import com.geocode.search.service.input.CoordinateScanner;
+import com.geocode.search.settings.ServerSettings;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.sentry.Sentry;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local HTTP server answering lookups with the layers loaded once at startup.
+ * {@code GET /lookup?x=..&y=..} looks up a single point, {@code POST /lookup} a batch of records in the format
+ * of the input file, one per line; both answer with the rows the file mode writes for the same records.
+ * Invalid records are answered with 400 and errors of the lookup with 500, the server keeps running.
+ */
+public class LookupServer extends Logger {
+
+    private static final String CONTENT_TYPE = "text/plain; charset=utf-8";
+
+    private final Parameters parameters;
+    private final Process process;
+    private final ServerSettings settings;
+    private HttpServer server;
+    private ExecutorService workers;
+
+    /**
+     * Constructor
+     * @param parameters configuration parameters
+     * @param process process used to intersect the records of the requests
+     */
+    public LookupServer(Parameters parameters, Process process) {
+        this.parameters = parameters;
+        this.process = process;
+        this.settings = parameters.getServerSettings();
+    }
+
+    /**
+     * Method used to start answering requests, the server keeps running until {@link #stop()} is called
+     * @return boolean value indicating whether the server started
+     */
+    public boolean start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress(settings.getHost(), settings.getPort()), 0);
+        } catch (IOException e) {
+            printError(ERROR_START_SERVER.description, e.getMessage());
+            Sentry.captureException(e);
+            return false;
+        }
+        workers = Executors.newFixedThreadPool(settings.getThreads(), runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setName("server-worker-" + thread.getId());
+            return thread;
+        });
+        server.setExecutor(workers);
+        server.createContext("/lookup", this::handleLookup);
+        server.createContext("/health", this::handleHealth);
+        server.start();
+        printInfo("Server listening on http://" + settings.getHost() + ":" + server.getAddress().getPort()
+                + "/lookup with " + settings.getThreads() + " workers");
+        return true;
+    }
+
+    /**
+     * Method used to stop accepting requests and wait for the running ones to complete
+     */
+    public void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(1);
+        workers.shutdown();
+        try {
+            workers.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Method used to get the port the server listens on
+     * @return port, useful when the configured port is 0
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Method used to answer a lookup request
+     * @param exchange HTTP request and response
+     * @throws IOException if the response cannot be sent
+     */
+    private void handleLookup(HttpExchange exchange) throws IOException {
+        try {
+            List<String> lines;
+            if (exchange.getRequestMethod().equals("GET")) {
+                lines = readPoint(exchange.getRequestURI().getRawQuery());
+            } else if (exchange.getRequestMethod().equals("POST")) {
+                lines = readRecords(exchange, settings.getMaxRecords());
+            } else {
+                send(exchange, 405, "Use GET with x and y or POST with the records\n");
+                return;
+            }
+
+            if (lines == null) {
+                send(exchange, 400, "Missing x or y parameter\n");
+            } else if (lines.size() > settings.getMaxRecords()) {
+                send(exchange, 413, "More than " + settings.getMaxRecords() + " records\n");
+            } else if (lines.isEmpty()) {
+                send(exchange, 200, new byte[0]);
+            } else {
+                int invalid = findInvalidRecord(lines);
+                if (invalid > 0) {
+                    send(exchange, 400, "Invalid coordinates in record " + invalid + "\n");
+                } else {
+                    send(exchange, 200, process.processChunk(lines));
+                }
+            }
+
+        } catch (LookupException e) {
+            send(exchange, e.isInvalidInput() ? 400 : 500, e.getMessage() + "\n");
+        } catch (Exception e) {
+            printError(ERROR_SERVER_REQUEST.description, e.getMessage());
+            Sentry.captureException(e);
+            send(exchange, 500, ERROR_SERVER_REQUEST.description + "\n");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Method used to answer the health check
+     * @param exchange HTTP request and response
+     * @throws IOException if the response cannot be sent
+     */
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        try {
+            send(exchange, 200, "OK\n");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Method used to build a record of the input format holding the coordinates of the query string
+     * @param query raw query string of the request
+     * @return single record, null if a coordinate is missing
+     */
+    private List<String> readPoint(String query) {
+        Map<String, String> values = new HashMap<>();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    values.put(
+                            URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        if (!values.containsKey("x") || !values.containsKey("y")) {
+            return null;
+        }
+
+        int columnX = parameters.getFileSettings().getColumnX();
+        int columnY = parameters.getFileSettings().getColumnY();
+        String[] columns = new String[Math.max(columnX, columnY) + 1];
+        Arrays.fill(columns, "");
+        columns[columnX] = values.get("x");
+        columns[columnY] = values.get("y");
+        return List.of(String.join(parameters.getFileSettings().getDelimiter(), columns));
+    }
+
+    /**
+     * Method used to check the coordinates of the records before they are looked up
+     * @param lines records of the request
+     * @return position of the first record with invalid coordinates, starting from 1, 0 if all are valid
+     */
+    private int findInvalidRecord(List<String> lines) {
+        CoordinateScanner scanner = parameters.getFileSettings().getCoordinateScanner();
+        Candidate candidate = new Candidate();
+        for (int i = 0; i < lines.size(); i++) {
+            if (scanner.scan(lines.get(i), candidate) != CoordinateScanner.VALID) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Method used to read the records sent in the body of the request, skipping empty lines.
+     * Reading stops one record after the limit, so a request above it is refused without reading all of it.
+     * @param exchange HTTP request and response
+     * @param limit maximum number of records of a request
+     * @return records of the request, one more than the limit if the request exceeds it
+     * @throws IOException if the body cannot be read
+     */
+    private static List<String> readRecords(HttpExchange exchange, int limit) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader =
+                new BufferedReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+            String line;
+            while (lines.size() <= limit && (line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    lines.add(line);
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Method used to send a text response
+     * @param exchange HTTP request and response
+     * @param status HTTP status code
+     * @param body response text
+     * @throws IOException if the response cannot be sent
+     */
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        send(exchange, status, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Method used to send a response
+     * @param exchange HTTP request and response
+     * @param status HTTP status code
+     * @param body response encoded in UTF-8
+     * @throws IOException if the response cannot be sent
+     */
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        }
+    }
+}
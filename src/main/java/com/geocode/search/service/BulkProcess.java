@@ -0,0 +1,218 @@
+package com.geocode.search.service;
+
+import static com.geocode.search.message.Alert.*;
+
+import com.geocode.search.cli.Parameters;
+import com.geocode.search.connection.Database;
+import com.geocode.search.metrics.Engine;
+import com.geocode.search.metrics.Metrics;
+import com.geocode.search.metrics.Stage;
+import com.geocode.search.service.input.Candidate;
+import com.geocode.search.service.intersect.database.BulkJoinQuery;
+import io.sentry.Sentry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+public class BulkProcess extends Process implements Runnable {
+
+    private static final int COPY_BUFFER_SIZE = 1 << 20;
+    private static final int FETCH_SIZE = 10000;
+
+    /**
+     * Constructor
+     * @param parameters configuration parameters
+     */
+    public BulkProcess(Parameters parameters) {
+        super(parameters, null);
+    }
+
+    @Override
+    public void run() {
+        Database database = getParameters().getIntersectSettings().getDatabaseConnection();
+        Connection connection = database.connect();
+        if (connection == null) {
+            System.exit(1);
+        }
+        try {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(BulkJoinQuery.CREATE_INPUT_TABLE);
+            }
+
+            long records = copyInput(connection);
+            printInfo("Input records copied to the database: " + records);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(BulkJoinQuery.INDEX_INPUT_TABLE);
+                statement.execute(BulkJoinQuery.ANALYZE_INPUT_TABLE);
+            }
+
+            joinInput(connection);
+            connection.commit();
+
+        } catch (Exception e) {
+            printError(ERROR_BULK_INTERSECT_DATABASE.description, e.getMessage());
+            Sentry.captureException(e);
+            rollback(connection);
+            System.exit(1);
+
+        } finally {
+            restoreAutoCommit(connection);
+            database.release(connection);
+        }
+    }
+
+    /**
+     * Method used to stream the input file into the temporary input table
+     * @param connection database connection
+     * @return number of copied records
+     * @throws SQLException if the copy fails
+     * @throws IOException if the input file cannot be read
+     */
+    private long copyInput(Connection connection) throws SQLException, IOException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(BulkJoinQuery.COPY_INPUT);
+        try {
+            long records = 0;
+            String line;
+            StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE);
+            while ((line = getParameters().getFileSettings().getInputFile().readLine()) != null) {
+                Candidate candidate = readCoordinates(line);
+                records++;
+
+                buffer.append(records).append('\t');
+                appendEscaped(buffer, line);
+                buffer.append('\t').append(candidate.getCoordinateX());
+                buffer.append('\t').append(candidate.getCoordinateY()).append('\n');
+
+                if (buffer.length() >= COPY_BUFFER_SIZE) {
+                    writeToCopy(copyIn, buffer);
+                }
+            }
+            writeToCopy(copyIn, buffer);
+            copyIn.endCopy();
+            return records;
+
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    /**
+     * Method used to join the input table with the database table and write the result
+     * @param connection database connection
+     * @throws SQLException if the query fails
+     * @throws IOException if the output file cannot be written
+     */
+    // spotless:off
+	private void joinInput(Connection connection) throws SQLException, IOException {
+		Database database = getParameters().getIntersectSettings().getDatabaseConnection();
+		BulkJoinQuery bulkJoinQuery = BulkJoinQuery.of(database, getParameters().getIntersectSettings().getIntersectData(), database.getSearchRadius() > 0);
+
+		Metrics.countQuery(Engine.BULK);
+		long start = Metrics.now();
+		try (PreparedStatement statement = bulkJoinQuery.prepare(connection, getParameters().getFileSettings().getCoordinateType(), (int) getParameters().getIntersectParams().getCandidates(), database.getSearchRadius(), FETCH_SIZE);
+			 ResultSet resultSet = statement.executeQuery()) {
+
+			Metrics.record(Stage.INTERSECT, start);
+			StringBuilder output = getOutputBuffer();
+			long lastIdx = -1;
+			while (resultSet.next()) {
+				String line = resultSet.getString(BulkJoinQuery.LINE_COLUMN);
+				resultSet.getDouble(BulkJoinQuery.DISTANCE_COLUMN);
+				if (resultSet.wasNull()) {
+					addEmptyDatabaseRecord(line, output);
+				} else {
+					addDatabaseRecord(resultSet, line, output);
+				}
+				long idx = resultSet.getLong(BulkJoinQuery.IDX_COLUMN);
+				if (idx != lastIdx) {
+					Metrics.countRecords(1);
+					lastIdx = idx;
+				}
+
+				if (output.length() >= COPY_BUFFER_SIZE) {
+					writeOutput(output);
+				}
+			}
+			writeOutput(output);
+		}
+	}
+	// spotless:on
+
+    /**
+     * Method used to escape a value for the text format of the COPY command
+     * @param buffer buffer sent to the database
+     * @param value value to be escaped
+     */
+    private static void appendEscaped(StringBuilder buffer, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char character = value.charAt(i);
+            switch (character) {
+                case '\\' -> buffer.append("\\\\");
+                case '\t' -> buffer.append("\\t");
+                case '\n' -> buffer.append("\\n");
+                case '\r' -> buffer.append("\\r");
+                default -> buffer.append(character);
+            }
+        }
+    }
+
+    /**
+     * Method used to send the buffered records to the database
+     * @param copyIn active copy operation
+     * @param buffer buffered records, cleared after the write
+     * @throws SQLException if the copy fails
+     */
+    private static void writeToCopy(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.length() > 0) {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+    }
+
+    /**
+     * Method used to write the buffered output records to the output file
+     * @param output buffered output records, cleared after the write
+     * @throws IOException if the output file cannot be written
+     */
+    private void writeOutput(StringBuilder output) throws IOException {
+        long start = Metrics.now();
+        getParameters().getFileSettings().getOutputFile().write(output.toString().getBytes(StandardCharsets.UTF_8));
+        output.setLength(0);
+        Metrics.record(Stage.WRITE, start);
+    }
+
+    /**
+     * Method used to roll back the transaction after an error
+     * @param connection database connection
+     */
+    private static void rollback(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (Exception e) {
+            Sentry.captureException(e);
+        }
+    }
+
+    /**
+     * Method used to restore auto commit before the connection is given back to the pool
+     * @param connection database connection
+     */
+    private static void restoreAutoCommit(Connection connection) {
+        try {
+            connection.setAutoCommit(true);
+        } catch (Exception e) {
+            Sentry.captureException(e);
+        }
+    }
+}
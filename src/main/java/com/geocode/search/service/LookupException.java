@@ -0,0 +1,25 @@
+package com.geocode.search.service;
+
+import com.geocode.search.message.Alert;
+import lombok.Getter;
+
+/**
+ * Failure of a lookup, thrown instead of stopping the application when the process answers the
+ * requests of the lookup server.
+ */
+@Getter
+public class LookupException extends RuntimeException {
+
+    private final boolean invalidInput;
+
+    /**
+     * Constructor
+     * @param alert error that stopped the lookup
+     * @param cause exception that caused the error, null if there is none
+     * @param invalidInput whether the error is caused by the record being looked up
+     */
+    public LookupException(Alert alert, Throwable cause, boolean invalidInput) {
+        super(alert.description, cause);
+        this.invalidInput = invalidInput;
+    }
+}
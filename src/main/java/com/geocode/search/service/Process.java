@@ -4,11 +4,25 @@ import static com.geocode.search.message.Alert.*;
 
 import com.geocode.search.cli.Parameters;
 import com.geocode.search.logging.Logger;
+import com.geocode.search.message.Alert;
+import com.geocode.search.metrics.Metrics;
+import com.geocode.search.metrics.Stage;
+import com.geocode.search.service.cache.CacheKey;
+import com.geocode.search.service.cache.ResultCache;
 import com.geocode.search.service.input.Candidate;
+import com.geocode.search.service.input.CoordinateScanner;
+import com.geocode.search.service.input.SpatialOrder;
 import com.geocode.search.service.intersect.GeoTool;
+import com.geocode.search.service.intersect.database.BatchKnnQuery;
 import com.geocode.search.service.output.IntersectResult;
+import com.geocode.search.settings.ShapefileLayer;
 import io.sentry.Sentry;
-import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -19,178 +33,562 @@ import org.opengis.feature.simple.SimpleFeature;
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
-public class Process extends Logger implements Runnable {
+public class Process extends Logger {
 
     private Parameters parameters;
     private GeoTool geoTool;
-    private static int rowCount = 0;
+    private boolean exitOnError = true;
+    private static final ThreadLocal<StringBuilder> outputBuffer =
+            ThreadLocal.withInitial(() -> new StringBuilder(1 << 16));
+    private static final ThreadLocal<StringBuilder> sortedBuffer =
+            ThreadLocal.withInitial(() -> new StringBuilder(1 << 16));
 
-    @Override
-    public void run() {
-        String line;
-        try {
-            while ((line = parameters.getFileSettings().getInputFile().readLine()) != null) {
-                executeIntersect(line);
-
-                rowCount++;
-                synchronized (this) {
-                    if (rowCount % 1000 == 0) {
-                        printInfo("Processed records: " + rowCount);
-                    }
-                }
+    /**
+     * Constructor, errors stop the application
+     * @param parameters configuration parameters
+     * @param geoTool tool used to intersect the records
+     */
+    public Process(Parameters parameters, GeoTool geoTool) {
+        this(parameters, geoTool, true);
+    }
+
+    /**
+     * Method used to perform intersect on a chunk of records of the input file
+     * @param lines records of the input file to be processed
+     * @return output records encoded in UTF-8, one or more for each input record
+     */
+    public byte[] processChunk(List<String> lines) {
+        StringBuilder output = getOutputBuffer();
+        if (parameters.getProcessingSettings().isSpatialOrder() && lines.size() > 2) {
+            processSpatialOrder(lines, output);
+        } else {
+            processLines(lines, output);
+        }
+        return output.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Method used to perform intersect on records of the input file
+     * @param lines records of the input file to be processed
+     * @param output output records, one or more for each input record
+     */
+    public void processLines(List<String> lines, StringBuilder output) {
+        processLines(lines, output, null);
+        Metrics.countRecords(lines.size());
+    }
+
+    /**
+     * Method used to perform intersect on records of the input file in the order given
+     * @param lines records of the input file to be processed
+     * @param output output records, one or more for each input record
+     * @param ends array receiving the length of the output after each record, null if not needed
+     */
+    private void processLines(List<String> lines, StringBuilder output, int[] ends) {
+        int batchSize = getBatchSize();
+        if (batchSize > 1) {
+            for (int i = 0; i < lines.size(); i += batchSize) {
+                executeBatchIntersect(lines.subList(i, Math.min(i + batchSize, lines.size())), output, ends, i);
             }
-        } catch (IOException e) {
-            printError(ERROR_READING_CSV.description, e.getMessage());
-            Sentry.captureException(e);
+        } else if (parameters.getIntersectSettings().getIntersectType().equals("shapefile")) {
+            executeShapefileIntersect(lines, output, ends);
+        } else {
+            for (int i = 0; i < lines.size(); i++) {
+                executeIntersect(lines.get(i), output);
+                markEnd(ends, i, output);
+            }
+        }
+    }
+
+    /**
+     * Method used to perform intersect on records sorted along a Hilbert curve, so that consecutive lookups
+     * touch close parts of the index or of the table, and to write their output in the input order
+     * @param lines records of the input file to be processed
+     * @param output output records, one or more for each input record, in the order of the records
+     */
+    private void processSpatialOrder(List<String> lines, StringBuilder output) {
+        long start = Metrics.now();
+        int[] order = SpatialOrder.of(lines, parameters.getFileSettings().getCoordinateScanner());
+        List<String> sortedLines = new ArrayList<>(lines.size());
+        for (int position : order) {
+            sortedLines.add(lines.get(position));
+        }
+        Metrics.record(Stage.SORT, start);
+
+        StringBuilder sortedOutput = sortedBuffer.get();
+        sortedOutput.setLength(0);
+        int[] ends = new int[lines.size()];
+        Arrays.fill(ends, -1);
+        processLines(sortedLines, sortedOutput, ends);
+
+        start = Metrics.now();
+        int[] starts = new int[lines.size()];
+        for (int i = 0; i < ends.length; i++) {
+            starts[i] = i > 0 ? ends[i - 1] : 0;
+            if (ends[i] < 0) {
+                ends[i] = starts[i];
+            }
+        }
+        int[] sortedPositions = new int[lines.size()];
+        for (int i = 0; i < order.length; i++) {
+            sortedPositions[order[i]] = i;
+        }
+        for (int sortedPosition : sortedPositions) {
+            output.append(sortedOutput, starts[sortedPosition], ends[sortedPosition]);
+        }
+        Metrics.record(Stage.SORT, start);
+        Metrics.countRecords(lines.size());
+    }
+
+    /**
+     * Method used to record where the output of a record ends
+     * @param ends array receiving the length of the output after each record, null if not needed
+     * @param record position of the record
+     * @param output output records of the chunk
+     */
+    private static void markEnd(int[] ends, int record, StringBuilder output) {
+        if (ends != null) {
+            ends[record] = output.length();
+        }
+    }
+
+    /**
+     * Method used to get the number of records sent to the database with a single query
+     * @return batch size, 1 when records are processed one at a time
+     */
+    public int getBatchSize() {
+        if (parameters.getIntersectSettings().getIntersectType().equals("database")) {
+            return parameters.getIntersectSettings().getDatabaseConnection().getBatchSize();
         }
+        return 1;
     }
 
     /**
-     * Method used to perform intersect on shapefile or database
+     * Method used to perform intersect on the shapefile, transforming the coordinates of all the records
+     * to the reference system of each layer at once
+     * @param lines records of the input file to be processed
+     * @param output output records of the chunk
+     * @param ends array receiving the length of the output after each record, null if not needed
+     */
+    // spotless:off
+	private void executeShapefileIntersect(List<String> lines, StringBuilder output, int[] ends) {
+		ArrayList<Candidate> candidates = new ArrayList<>(lines.size());
+		for (String line : lines) {
+			candidates.add(readCoordinates(line));
+		}
+		long start = Metrics.now();
+		double[][] coordinates = geoTool.projectCandidates(candidates);
+		Metrics.record(Stage.TRANSFORM, start);
+
+		ResultCache resultCache = parameters.getCacheSettings().getResultCache();
+		for (int i = 0; i < lines.size(); i++) {
+			if (resultCache != null) {
+				CacheKey key = resultCache.keyOf(candidates.get(i));
+				String[] result = resultCache.get(key);
+				if (result == null) {
+					start = Metrics.now();
+					result = extractShapefileResult(geoTool.extractDataFromShapefile(coordinates, i, parameters.getIntersectParams()));
+					Metrics.record(Stage.INTERSECT, start);
+					resultCache.put(key, result);
+				}
+				start = Metrics.now();
+				appendResult(lines.get(i), result, output);
+				Metrics.record(Stage.FORMAT, start);
+			} else {
+				start = Metrics.now();
+				IntersectResult intersectResult = geoTool.extractDataFromShapefile(coordinates, i, parameters.getIntersectParams());
+				start = Metrics.record(Stage.INTERSECT, start);
+				generateShapefileOutput(intersectResult, lines.get(i), output);
+				Metrics.record(Stage.FORMAT, start);
+			}
+			markEnd(ends, i, output);
+		}
+	}
+	// spotless:on
+
+    /**
+     * Method used to perform intersect on database
      * @param line record of the input file to be processed
+     * @param output output records of the chunk
      */
     // spotless:off
-	private void executeIntersect(String line) {
+	private void executeIntersect(String line, StringBuilder output) {
 		Candidate candidate = readCoordinates(line);
-		IntersectResult intersectResult;
-
-		switch (parameters.getIntersectSettings().getIntersectType()) {
-			case "shapefile":
-				intersectResult = geoTool.extractDataFromShapefile(candidate, parameters.getIntersectParams());
-				generateShapefileOutput(intersectResult, line);
-				break;
-			case "database":
-				intersectResult = geoTool.extractDataFromDatabase(candidate, parameters.getIntersectSettings().getDatabaseConnection(), parameters.getIntersectParams().getCandidates(), parameters.getIntersectSettings().getIntersectData());
-				addDatabaseResultToFile(intersectResult, line);
-				break;
+		ResultCache resultCache = parameters.getCacheSettings().getResultCache();
+		if (resultCache != null) {
+			CacheKey key = resultCache.keyOf(candidate);
+			String[] result = resultCache.get(key);
+			if (result == null) {
+				long start = Metrics.now();
+				result = extractResult(candidate);
+				Metrics.record(Stage.INTERSECT, start);
+				resultCache.put(key, result);
+			}
+			long start = Metrics.now();
+			appendResult(line, result, output);
+			Metrics.record(Stage.FORMAT, start);
+			return;
+		}
+		long start = Metrics.now();
+		IntersectResult intersectResult = geoTool.extractDataFromDatabase(candidate, parameters.getIntersectSettings().getDatabaseConnection(), parameters.getIntersectParams().getCandidates(), parameters.getIntersectSettings().getIntersectData());
+		start = Metrics.record(Stage.INTERSECT, start);
+		addDatabaseResultToFile(intersectResult, line, output);
+		Metrics.record(Stage.FORMAT, start);
+	}
+	// spotless:on
+
+    /**
+     * Method used to perform intersect on database for a batch of records
+     * @param lines records of the input file to be processed
+     * @param output output records of the chunk
+     * @param ends array receiving the length of the output after each record of the chunk, null if not needed
+     * @param first position of the first record of the batch in the chunk
+     */
+    // spotless:off
+	private void executeBatchIntersect(List<String> lines, StringBuilder output, int[] ends, int first) {
+		ResultCache resultCache = parameters.getCacheSettings().getResultCache();
+		if (resultCache == null) {
+			ArrayList<Candidate> candidates = new ArrayList<>(lines.size());
+			for (String line : lines) {
+				candidates.add(readCoordinates(line));
+			}
+			long start = Metrics.now();
+			IntersectResult intersectResult = geoTool.extractDataFromDatabase(candidates, parameters.getIntersectSettings().getDatabaseConnection(), parameters.getIntersectParams().getCandidates(), parameters.getIntersectSettings().getIntersectData());
+			start = Metrics.record(Stage.INTERSECT, start);
+			addDatabaseBatchResultToFile(intersectResult, lines, output, ends, first);
+			Metrics.record(Stage.FORMAT, start);
+			return;
+		}
+
+		String[][] results = new String[lines.size()][];
+		CacheKey[] keys = new CacheKey[lines.size()];
+		ArrayList<Candidate> missingCandidates = new ArrayList<>();
+		ArrayList<Integer> missingPositions = new ArrayList<>();
+		for (int i = 0; i < lines.size(); i++) {
+			Candidate candidate = readCoordinates(lines.get(i));
+			keys[i] = resultCache.keyOf(candidate);
+			results[i] = resultCache.get(keys[i]);
+			if (results[i] == null) {
+				missingCandidates.add(candidate);
+				missingPositions.add(i);
+			}
+		}
+
+		long start = Metrics.now();
+		if (!missingCandidates.isEmpty()) {
+			IntersectResult intersectResult = geoTool.extractDataFromDatabase(missingCandidates, parameters.getIntersectSettings().getDatabaseConnection(), parameters.getIntersectParams().getCandidates(), parameters.getIntersectSettings().getIntersectData());
+			List<List<String>> missingResults = readDatabaseResult(intersectResult, missingCandidates.size());
+			for (int i = 0; i < missingPositions.size(); i++) {
+				int position = missingPositions.get(i);
+				results[position] = missingResults.get(i).toArray(new String[0]);
+				resultCache.put(keys[position], results[position]);
+			}
+			start = Metrics.record(Stage.INTERSECT, start);
 		}
+
+		for (int i = 0; i < lines.size(); i++) {
+			appendResult(lines.get(i), results[i], output);
+			markEnd(ends, first + i, output);
+		}
+		Metrics.record(Stage.FORMAT, start);
+	}
+	// spotless:on
+
+    /**
+     * Method used to extract the output columns of each candidate found for a coordinate on the database
+     * @param candidate input coordinates
+     * @return output columns of each candidate found, cached by coordinate
+     */
+    // spotless:off
+	private String[] extractResult(Candidate candidate) {
+		IntersectResult intersectResult = geoTool.extractDataFromDatabase(candidate, parameters.getIntersectSettings().getDatabaseConnection(), parameters.getIntersectParams().getCandidates(), parameters.getIntersectSettings().getIntersectData());
+		return readDatabaseResult(intersectResult, 0).get(0).toArray(new String[0]);
 	}
 	// spotless:on
 
+    /**
+     * Method used to extract the output columns of each candidate found on the shapefile
+     * @param intersectResult result of the reverse operation
+     * @return output columns of each candidate position, cached by coordinate
+     */
+    private String[] extractShapefileResult(IntersectResult intersectResult) {
+        StringBuilder columns = new StringBuilder();
+        int rows = countShapefileRows(intersectResult);
+        String[] result = new String[rows];
+        for (int row = 0; row < rows; row++) {
+            columns.setLength(0);
+            appendShapefileRow(intersectResult, row, columns);
+            result[row] = columns.toString();
+        }
+        return result;
+    }
+
+    /**
+     * Method used to read the output columns of the database rows, grouped by input record
+     * @param intersectResult result of the reverse operation
+     * @param records number of records sent with a batch query, 0 for a single record query
+     * @return output columns of each candidate found, for each input record
+     */
+    private List<List<String>> readDatabaseResult(IntersectResult intersectResult, int records) {
+        List<List<String>> result = new ArrayList<>(Math.max(1, records));
+        for (int i = 0; i < Math.max(1, records); i++) {
+            result.add(new ArrayList<>());
+        }
+        ResultSet resultSet = intersectResult.getDbElements();
+        try {
+            StringBuilder columns = new StringBuilder();
+            while (resultSet.next()) {
+                int index = records > 0 ? resultSet.getInt(BatchKnnQuery.INDEX_COLUMN) - 1 : 0;
+                columns.setLength(0);
+                appendDatabaseColumns(resultSet, columns);
+                result.get(index).add(columns.toString());
+            }
+            parameters.getIntersectSettings().getDatabaseConnection().closeResult(resultSet);
+
+        } catch (Exception e) {
+            printError(ERROR_EXTRACT_DATA_DATABASE.description, e.getMessage());
+            Sentry.captureException(e);
+            parameters.getIntersectSettings().getDatabaseConnection().closeResult(resultSet);
+            fail(ERROR_EXTRACT_DATA_DATABASE, e, false);
+        }
+        return result;
+    }
+
+    /**
+     * Method used to report a cached result to the output records
+     * @param line input file string
+     * @param result output columns of each candidate found
+     * @param output output records of the chunk
+     */
+    private void appendResult(String line, String[] result, StringBuilder output) {
+        String delimiter = parameters.getFileSettings().getDelimiter();
+        for (String columns : result) {
+            output.append(line).append(delimiter).append(columns).append('\n');
+        }
+    }
+
     /**
      * Method used to read the coordinates and type
      * @param line record of the input file to be processed
      * @return extracted candidate
      */
     // spotless:off
-	private Candidate readCoordinates(String line) {
+	Candidate readCoordinates(String line) {
+		long start = Metrics.now();
 		Candidate candidate = new Candidate();
-		String delimiter = parameters.getFileSettings().getDelimiter();
-		if (delimiter.equals("|")) {
-			delimiter = "\\|";
-		}
-		String[] elements = line.split(delimiter);
 
-		try {
-			candidate.setCoordinateX(Double.parseDouble(elements[parameters.getFileSettings().getColumnX()]));
-		} catch (Exception e) {
-			printError(INVALID_COORDINATE_X_POSITION.description);
-			System.exit(1);
-		}
-		try {
-			candidate.setCoordinateY(Double.parseDouble(elements[parameters.getFileSettings().getColumnY()]));
-		} catch (Exception e) {
-			printError(INVALID_COORDINATE_Y_POSITION.description);
-			System.exit(1);
+		switch (parameters.getFileSettings().getCoordinateScanner().scan(line, candidate)) {
+			case CoordinateScanner.INVALID_COORDINATE_X -> {
+				printError(INVALID_COORDINATE_X_POSITION.description);
+				fail(INVALID_COORDINATE_X_POSITION, null, true);
+			}
+			case CoordinateScanner.INVALID_COORDINATE_Y -> {
+				printError(INVALID_COORDINATE_Y_POSITION.description);
+				fail(INVALID_COORDINATE_Y_POSITION, null, true);
+			}
+			default -> {}
 		}
 
 		candidate.setCoordinateType(parameters.getFileSettings().getCoordinateType());
+		Metrics.record(Stage.PARSE, start);
 		return candidate;
 	}
 	// spotless:on
 
     /**
-     * Method used to generate the output of the shapefile
+     * Method used to generate the output of the shapefile, one row for each candidate position
+     * with the columns of every layer side by side
      * @param intersectResult result of the reverse operation
      * @param line input file string
+     * @param output output records of the chunk
      */
-    private void generateShapefileOutput(IntersectResult intersectResult, String line) {
-        int candidateNumber = 0;
-        String shapefileResult = "";
-        if (!intersectResult.getShapeElements().isEmpty()) {
-            for (SimpleFeature simpleFeature : intersectResult.getShapeElements()) {
-
-                if (candidateNumber <= parameters.getIntersectParams().getCandidates()) {
-
-                    for (String data : parameters.getIntersectSettings().getIntersectData()) {
-                        shapefileResult += simpleFeature.getAttribute(data);
-                        shapefileResult += parameters.getFileSettings().getDelimiter();
-                    }
-                    candidateNumber++;
+    void generateShapefileOutput(IntersectResult intersectResult, String line, StringBuilder output) {
+        String delimiter = parameters.getFileSettings().getDelimiter();
+        int rows = countShapefileRows(intersectResult);
+        for (int row = 0; row < rows; row++) {
+            output.append(line).append(delimiter);
+            appendShapefileRow(intersectResult, row, output);
+            output.append('\n');
+        }
+    }
 
-                    shapefileResult = shapefileResult.substring(0, shapefileResult.length() - 1);
-                    String inputRecord = generateInputRecord(line);
-                    writeOutputToTheFile(inputRecord, shapefileResult);
-                }
-            }
-        } else {
-            String inputRecord = generateInputRecord(line);
-            shapefileResult = generateOutputEmpty();
-            writeOutputToTheFile(inputRecord, shapefileResult);
+    /**
+     * Method used to count the output rows of a shapefile result
+     * @param intersectResult result of the reverse operation
+     * @return largest number of candidates found in a layer, 1 if nothing is found
+     */
+    private int countShapefileRows(IntersectResult intersectResult) {
+        int rows = 1;
+        for (List<SimpleFeature> features : intersectResult.getLayerElements()) {
+            rows = Math.max(rows, features.size());
         }
+        return rows;
     }
 
+    /**
+     * Method used to report the columns of every layer for a candidate position
+     * @param intersectResult result of the reverse operation
+     * @param row candidate position
+     * @param output output records of the chunk
+     */
+    // spotless:off
+	private void appendShapefileRow(IntersectResult intersectResult, int row, StringBuilder output) {
+		String delimiter = parameters.getFileSettings().getDelimiter();
+		List<ShapefileLayer> layers = parameters.getIntersectSettings().getShapefileLayers();
+		for (int layer = 0; layer < layers.size(); layer++) {
+			if (layer > 0) {
+				output.append(delimiter);
+			}
+			List<SimpleFeature> features = layer < intersectResult.getLayerElements().size() ? intersectResult.getLayerElements().get(layer) : List.of();
+			if (row < features.size()) {
+				appendShapefileColumns(features.get(row), layers.get(layer).getData(), output);
+			} else {
+				generateOutputEmpty(layers.get(layer).getData().size(), output);
+			}
+		}
+	}
+	// spotless:on
+
     /**
      * Method used to generate the output of the database
      * @param intersectResult result of the reverse operation
      * @param line input file string
+     * @param output output records of the chunk
      */
-    private void addDatabaseResultToFile(IntersectResult intersectResult, String line) {
+    private void addDatabaseResultToFile(IntersectResult intersectResult, String line, StringBuilder output) {
         try {
             while (intersectResult.getDbElements().next()) {
-
-                String databaseResult = "";
-                for (String data : parameters.getIntersectSettings().getIntersectData()) {
-                    databaseResult += intersectResult.getDbElements().getString(data);
-                    databaseResult += parameters.getFileSettings().getDelimiter();
-                }
-
-                databaseResult = databaseResult.substring(0, databaseResult.length() - 1);
-                String inputRecord = generateInputRecord(line);
-                writeOutputToTheFile(inputRecord, databaseResult);
+                addDatabaseRecord(intersectResult.getDbElements(), line, output);
             }
-            intersectResult.getDbElements().close();
+            parameters.getIntersectSettings().getDatabaseConnection().closeResult(intersectResult.getDbElements());
 
         } catch (Exception e) {
             printError(ERROR_EXTRACT_DATA_DATABASE.description, e.getMessage());
             Sentry.captureException(e);
-            System.exit(1);
+            parameters.getIntersectSettings().getDatabaseConnection().closeResult(intersectResult.getDbElements());
+            fail(ERROR_EXTRACT_DATA_DATABASE, e, false);
         }
     }
 
     /**
-     * Method used to generate the input record to be reported in the output file
+     * Method used to generate the output of the database for a batch of records
+     * @param intersectResult result of the reverse operation
+     * @param lines input file strings
+     * @param output output records of the chunk
+     * @param ends array receiving the length of the output after each record of the chunk, null if not needed
+     * @param first position of the first record of the batch in the chunk
+     */
+    // spotless:off
+	private void addDatabaseBatchResultToFile(IntersectResult intersectResult, List<String> lines, StringBuilder output, int[] ends, int first) {
+		try {
+			while (intersectResult.getDbElements().next()) {
+				int index = intersectResult.getDbElements().getInt(BatchKnnQuery.INDEX_COLUMN);
+				addDatabaseRecord(intersectResult.getDbElements(), lines.get(index - 1), output);
+				markEnd(ends, first + index - 1, output);
+			}
+			parameters.getIntersectSettings().getDatabaseConnection().closeResult(intersectResult.getDbElements());
+
+		} catch (Exception e) {
+			printError(ERROR_EXTRACT_DATA_DATABASE.description, e.getMessage());
+			Sentry.captureException(e);
+			parameters.getIntersectSettings().getDatabaseConnection().closeResult(intersectResult.getDbElements());
+			fail(ERROR_EXTRACT_DATA_DATABASE, e, false);
+		}
+	}
+	// spotless:on
+
+    /**
+     * Method used to report the current database row to the output records
+     * @param resultSet database rows positioned on the row to report
      * @param line input file string
-     * @return string to be reported in output
+     * @param output output records of the chunk
+     * @throws SQLException if a column cannot be read
      */
-    private String generateInputRecord(String line) {
-        return line + parameters.getFileSettings().getDelimiter();
+    void addDatabaseRecord(ResultSet resultSet, String line, StringBuilder output) throws SQLException {
+        output.append(line).append(parameters.getFileSettings().getDelimiter());
+        appendDatabaseColumns(resultSet, output);
+        output.append('\n');
     }
 
     /**
-     * Method used to generate output when nothing is found within the shapefile
-     * @return string to be reported in output
+     * Method used to report an input record without candidates in the database
+     * @param line input file string
+     * @param output output records of the chunk
      */
-    // spotless:off
-	private String generateOutputEmpty() {
-		return String.valueOf(parameters.getFileSettings().getDelimiter()).repeat(parameters.getIntersectSettings().getIntersectData().size() - 1);
-	}
-	// spotless:on
+    void addEmptyDatabaseRecord(String line, StringBuilder output) {
+        output.append(line).append(parameters.getFileSettings().getDelimiter());
+        generateOutputEmpty(parameters.getIntersectSettings().getIntersectData().size(), output);
+        output.append('\n');
+    }
 
     /**
-     * Method used to report the result to the output file
-     * @param inputRecord input record
-     * @param reverseElements reverse result or header
+     * Method used to report the extracted columns of a shapefile feature
+     * @param simpleFeature feature found
+     * @param columns columns extracted from the layer of the feature
+     * @param output output records of the chunk
      */
-    private void writeOutputToTheFile(String inputRecord, String reverseElements) {
-        try {
-            parameters.getFileSettings().getOutputFile().write(inputRecord + reverseElements + "\n");
-            parameters.getFileSettings().getOutputFile().flush();
+    private void appendShapefileColumns(SimpleFeature simpleFeature, List<String> columns, StringBuilder output) {
+        String delimiter = parameters.getFileSettings().getDelimiter();
+        boolean first = true;
+        for (String data : columns) {
+            if (!first) {
+                output.append(delimiter);
+            }
+            output.append(simpleFeature.getAttribute(data));
+            first = false;
+        }
+    }
 
-        } catch (Exception e) {
-            printError(ERROR_WRITE_FILE_OUTPUT.description, e.getMessage());
-            Sentry.captureException(e);
+    /**
+     * Method used to report the extracted columns of the current database row
+     * @param resultSet database rows positioned on the row to report
+     * @param output output records of the chunk
+     * @throws SQLException if a column cannot be read
+     */
+    private void appendDatabaseColumns(ResultSet resultSet, StringBuilder output) throws SQLException {
+        String delimiter = parameters.getFileSettings().getDelimiter();
+        boolean first = true;
+        for (String data : parameters.getIntersectSettings().getIntersectData()) {
+            if (!first) {
+                output.append(delimiter);
+            }
+            output.append(resultSet.getString(data));
+            first = false;
+        }
+    }
+
+    /**
+     * Method used to generate output when nothing is found within a layer
+     * @param columns number of columns extracted from the layer
+     * @param output output records of the chunk
+     */
+    private void generateOutputEmpty(int columns, StringBuilder output) {
+        String delimiter = parameters.getFileSettings().getDelimiter();
+        for (int i = 1; i < columns; i++) {
+            output.append(delimiter);
+        }
+    }
+
+    /**
+     * Method used to get the output buffer of the current thread
+     * @return empty buffer reused by the thread for every chunk
+     */
+    StringBuilder getOutputBuffer() {
+        StringBuilder output = outputBuffer.get();
+        output.setLength(0);
+        return output;
+    }
+
+    /**
+     * Method used to stop the processing after an error, already logged, that prevents a record from being looked up
+     * @param alert error that stopped the lookup
+     * @param cause exception that caused the error, null if there is none
+     * @param invalidInput whether the error is caused by the record being looked up
+     * @throws LookupException if errors do not stop the application
+     */
+    private void fail(Alert alert, Exception cause, boolean invalidInput) {
+        if (exitOnError) {
             System.exit(1);
         }
+        throw new LookupException(alert, cause, invalidInput);
     }
 }
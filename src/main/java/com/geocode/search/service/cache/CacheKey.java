@@ -0,0 +1,24 @@
+package com.geocode.search.service.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+@Getter
+@EqualsAndHashCode
+@AllArgsConstructor
+public class CacheKey {
+
+    private final long coordinateX;
+    private final long coordinateY;
+    private final int coordinateType;
+
+    /**
+     * Method used to spread the hash code so that neighbouring coordinates end up in different segments
+     * @return mixed hash code
+     */
+    int spread() {
+        int hash = hashCode();
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,155 @@
+package com.geocode.search.service.cache;
+
+import com.geocode.search.service.input.Candidate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Getter;
+
+@Getter
+public class ResultCache {
+
+    private final double scale;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor
+     * @param precision number of decimals kept when comparing coordinates
+     * @param size maximum number of cached results
+     * @param policy eviction policy (lru/fifo)
+     * @param concurrency number of independently locked segments, rounded up to a power of two
+     */
+    public ResultCache(int precision, int size, String policy, int concurrency) {
+        this.scale = Math.pow(10, precision);
+
+        int segmentCount = Integer.highestOneBit(Math.max(1, concurrency - 1)) << 1;
+        int segmentSize = Math.max(1, (size + segmentCount - 1) / segmentCount);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentSize, policy.equals("lru"));
+        }
+    }
+
+    /**
+     * Method used to build the key of a candidate, rounding its coordinates to the configured precision
+     * @param candidate input coordinates
+     * @return cache key
+     */
+    public CacheKey keyOf(Candidate candidate) {
+        return new CacheKey(
+                Math.round(candidate.getCoordinateX() * scale),
+                Math.round(candidate.getCoordinateY() * scale),
+                candidate.getCoordinateType());
+    }
+
+    /**
+     * Method used to get a cached result
+     * @param key cache key
+     * @return output columns of each candidate found, null if the coordinate is not cached
+     */
+    public String[] get(CacheKey key) {
+        Segment segment = segmentOf(key);
+        String[] result;
+        synchronized (segment) {
+            result = segment.get(key);
+        }
+        if (result != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return result;
+    }
+
+    /**
+     * Method used to store a result, evicting the oldest entry of the segment when it is full
+     * @param key cache key
+     * @param result output columns of each candidate found
+     */
+    public void put(CacheKey key, String[] result) {
+        Segment segment = segmentOf(key);
+        synchronized (segment) {
+            segment.put(key, result);
+        }
+    }
+
+    /**
+     * Method used to get the number of lookups answered by the cache
+     * @return number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Method used to get the number of lookups not found in the cache
+     * @return number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Method used to get the number of results evicted from the cache
+     * @return number of evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Method used to get the ratio between hits and lookups
+     * @return hit ratio, 0 if no lookup was done
+     */
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum();
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    /**
+     * Method used to describe the cache counters
+     * @return hits, misses, evictions and hit ratio
+     */
+    public String describe() {
+        return String.format(
+                "hits=%d misses=%d evictions=%d hitRatio=%.2f%%",
+                hits.sum(), misses.sum(), evictions.sum(), getHitRatio() * 100);
+    }
+
+    /**
+     * Method used to select the segment of a key
+     * @param key cache key
+     * @return segment holding the key
+     */
+    private Segment segmentOf(CacheKey key) {
+        return segments[key.spread() & (segments.length - 1)];
+    }
+
+    private class Segment extends LinkedHashMap<CacheKey, String[]> {
+
+        private final int capacity;
+
+        /**
+         * Constructor
+         * @param capacity maximum number of entries of the segment
+         * @param accessOrder true to evict the least recently used entry, false to evict the oldest inserted
+         */
+        Segment(int capacity, boolean accessOrder) {
+            super(16, 0.75f, accessOrder);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, String[]> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
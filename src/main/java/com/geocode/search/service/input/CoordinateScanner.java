@@ -0,0 +1,238 @@
+package com.geocode.search.service.input;
+
+import lombok.Getter;
+
+@Getter
+public class CoordinateScanner {
+
+    public static final int VALID = 0;
+    public static final int INVALID_COORDINATE_X = 1;
+    public static final int INVALID_COORDINATE_Y = 2;
+
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final int MAX_MANTISSA_DIGITS = 18;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final String delimiter;
+    private final int columnX;
+    private final int columnY;
+
+    /**
+     * Constructor
+     * @param delimiter delimiter used in input file to divide columns
+     * @param columnX longitude column
+     * @param columnY latitude column
+     */
+    public CoordinateScanner(String delimiter, int columnX, int columnY) {
+        this.delimiter = delimiter;
+        this.columnX = columnX;
+        this.columnY = columnY;
+    }
+
+    /**
+     * Method used to read the coordinates of a record walking it only once and without allocations
+     * @param line record of the input file
+     * @param candidate candidate receiving the coordinates
+     * @return VALID, or the coordinate that could not be read
+     */
+    public int scan(CharSequence line, Candidate candidate) {
+        int startX = -1;
+        int endX = -1;
+        int startY = -1;
+        int endY = -1;
+        int lastColumn = Math.max(columnX, columnY);
+
+        int length = line.length();
+        int position = 0;
+        for (int column = 0; column <= lastColumn && position <= length; column++) {
+            int start = position;
+            int end;
+            if (position < length && line.charAt(position) == '"') {
+                start = position + 1;
+                end = closingQuote(line, start);
+                position = end < length ? end + 1 : length;
+            } else {
+                end = -1;
+            }
+
+            int next = nextDelimiter(line, position);
+            if (end < 0) {
+                end = next;
+            }
+            if (column == columnX) {
+                startX = start;
+                endX = end;
+            }
+            if (column == columnY) {
+                startY = start;
+                endY = end;
+            }
+            position = next + delimiter.length();
+        }
+
+        if (startX < 0) {
+            return INVALID_COORDINATE_X;
+        }
+        try {
+            candidate.setCoordinateX(parseDouble(line, startX, endX));
+        } catch (NumberFormatException e) {
+            return INVALID_COORDINATE_X;
+        }
+        if (startY < 0) {
+            return INVALID_COORDINATE_Y;
+        }
+        try {
+            candidate.setCoordinateY(parseDouble(line, startY, endY));
+        } catch (NumberFormatException e) {
+            return INVALID_COORDINATE_Y;
+        }
+        return VALID;
+    }
+
+    /**
+     * Method used to find the next delimiter
+     * @param line record of the input file
+     * @param from position from which to search
+     * @return position of the delimiter, or the length of the line if there is none
+     */
+    private int nextDelimiter(CharSequence line, int from) {
+        int length = line.length();
+        char first = delimiter.charAt(0);
+        for (int i = from; i < length; i++) {
+            if (line.charAt(i) == first && matchesDelimiter(line, i)) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Method used to check whether the delimiter starts at a position
+     * @param line record of the input file
+     * @param position position of the first delimiter character
+     * @return boolean value indicating whether the whole delimiter is found
+     */
+    private boolean matchesDelimiter(CharSequence line, int position) {
+        if (position + delimiter.length() > line.length()) {
+            return false;
+        }
+        for (int i = 1; i < delimiter.length(); i++) {
+            if (line.charAt(position + i) != delimiter.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method used to find the quote closing a quoted field, skipping escaped quotes
+     * @param line record of the input file
+     * @param from first character inside the quotes
+     * @return position of the closing quote, or the length of the line if there is none
+     */
+    private static int closingQuote(CharSequence line, int from) {
+        int length = line.length();
+        int i = from;
+        while (i < length) {
+            if (line.charAt(i) == '"') {
+                if (i + 1 < length && line.charAt(i + 1) == '"') {
+                    i += 2;
+                    continue;
+                }
+                return i;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    /**
+     * Method used to parse a decimal number from a range of characters.
+     * Numbers with up to 15 significant digits and small exponents are converted exactly without allocations,
+     * any other form is delegated to Double.parseDouble.
+     * @param text characters containing the number
+     * @param from first character of the number
+     * @param to first character after the number
+     * @return parsed value
+     * @throws NumberFormatException if the range does not contain a number
+     */
+    public static double parseDouble(CharSequence text, int from, int to) {
+        while (from < to && text.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && text.charAt(to - 1) <= ' ') {
+            to--;
+        }
+
+        int i = from;
+        boolean negative = false;
+        if (i < to && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+        while (i < to && isDigit(text.charAt(i))) {
+            if (digits < MAX_MANTISSA_DIGITS) {
+                mantissa = mantissa * 10 + (text.charAt(i) - '0');
+                digits += mantissa != 0 ? 1 : 0;
+            } else {
+                exponent++;
+            }
+            anyDigit = true;
+            i++;
+        }
+        if (i < to && text.charAt(i) == '.') {
+            i++;
+            while (i < to && isDigit(text.charAt(i))) {
+                if (digits < MAX_MANTISSA_DIGITS) {
+                    mantissa = mantissa * 10 + (text.charAt(i) - '0');
+                    digits += mantissa != 0 ? 1 : 0;
+                    exponent--;
+                }
+                anyDigit = true;
+                i++;
+            }
+        }
+        if (anyDigit && i < to && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                negativeExponent = text.charAt(i) == '-';
+                i++;
+            }
+            int explicitExponent = 0;
+            boolean anyExponentDigit = false;
+            while (i < to && isDigit(text.charAt(i)) && explicitExponent < 10000) {
+                explicitExponent = explicitExponent * 10 + (text.charAt(i) - '0');
+                anyExponentDigit = true;
+                i++;
+            }
+            if (!anyExponentDigit) {
+                anyDigit = false;
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if (!anyDigit || i != to || mantissa >= MAX_EXACT_MANTISSA || Math.abs(exponent) >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(text.subSequence(from, to).toString());
+        }
+        double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Method used to check whether a character is a decimal digit
+     * @param character character to check
+     * @return boolean value indicating whether the character is a digit
+     */
+    private static boolean isDigit(char character) {
+        return character >= '0' && character <= '9';
+    }
+}
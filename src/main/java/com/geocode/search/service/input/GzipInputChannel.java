@@ -0,0 +1,126 @@
+package com.geocode.search.service.input;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Channel over the content of a gzip file, decompressed on a dedicated thread into large blocks
+ * so that decompression overlaps with the parsing and the intersect of the records already read.
+ * Files made of several concatenated gzip members are read as a single stream.
+ */
+public class GzipInputChannel implements ReadableByteChannel {
+
+    private static final int BLOCK_SIZE = 1 << 20;
+    private static final int QUEUED_BLOCKS = 8;
+    private static final byte[] END = new byte[0];
+
+    private final BlockingQueue<byte[]> blocks = new ArrayBlockingQueue<>(QUEUED_BLOCKS);
+    private final Thread decompressor;
+    private volatile IOException failure;
+    private ByteBuffer current = ByteBuffer.allocate(0);
+    private boolean finished;
+    private boolean open = true;
+
+    /**
+     * Constructor
+     * @param path gzip file path
+     * @throws IOException if the file cannot be opened or is not in gzip format
+     */
+    public GzipInputChannel(Path path) throws IOException {
+        InputStream input = new GZIPInputStream(Files.newInputStream(path), 1 << 16);
+        decompressor = new Thread(() -> decompress(input), "input-decompressor");
+        decompressor.setDaemon(true);
+        decompressor.start();
+    }
+
+    /**
+     * Method used to check whether a file is compressed with gzip, from its extension or its first bytes
+     * @param path file path
+     * @return boolean value indicating whether the file is in gzip format
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isGzip(Path path) throws IOException {
+        if (path.getFileName().toString().toLowerCase().endsWith(".gz")) {
+            return true;
+        }
+        try (InputStream input = Files.newInputStream(path)) {
+            return input.read() == 0x1f && input.read() == 0x8b;
+        }
+    }
+
+    /**
+     * Method used by the decompression thread to fill the queue of blocks until the end of the file
+     * @param input decompressed stream
+     */
+    private void decompress(InputStream input) {
+        try (input) {
+            while (true) {
+                byte[] block = new byte[BLOCK_SIZE];
+                int length = input.readNBytes(block, 0, BLOCK_SIZE);
+                if (length > 0) {
+                    blocks.put(length < BLOCK_SIZE ? Arrays.copyOf(block, length) : block);
+                }
+                if (length < BLOCK_SIZE) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            return;
+        }
+        try {
+            blocks.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer target) throws IOException {
+        if (!current.hasRemaining()) {
+            if (finished) {
+                return -1;
+            }
+            try {
+                byte[] block = blocks.take();
+                if (block == END) {
+                    finished = true;
+                    if (failure != null) {
+                        throw failure;
+                    }
+                    return -1;
+                }
+                current = ByteBuffer.wrap(block);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(e.getMessage());
+            }
+        }
+        int length = Math.min(current.remaining(), target.remaining());
+        target.put(target.position(), current, current.position(), length);
+        target.position(target.position() + length);
+        current.position(current.position() + length);
+        return length;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        decompressor.interrupt();
+    }
+}
@@ -0,0 +1,125 @@
+package com.geocode.search.service.input;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import lombok.Getter;
+
+public class LineReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferPosition;
+    private int bufferLimit;
+    private byte[] line = new byte[4096];
+
+    @Getter
+    private long position;
+
+    @Getter
+    private final boolean compressed;
+
+    /**
+     * Constructor, gzip files are decompressed on a background thread and their offsets
+     * refer to the decompressed content
+     * @param path input file path
+     * @param offset byte from which the file is read
+     * @throws IOException if the file cannot be opened
+     */
+    public LineReader(String path, long offset) throws IOException {
+        compressed = GzipInputChannel.isGzip(Path.of(path));
+        if (compressed) {
+            channel = new GzipInputChannel(Path.of(path));
+            skip(offset);
+        } else {
+            FileChannel fileChannel = FileChannel.open(Path.of(path), StandardOpenOption.READ);
+            fileChannel.position(offset);
+            channel = fileChannel;
+        }
+        position = offset;
+    }
+
+    /**
+     * Method used to read the next line of the file, keeping track of the bytes consumed
+     * @return line decoded from UTF-8 without line terminators, null at the end of the file
+     * @throws IOException if the file cannot be read
+     */
+    public String readLine() throws IOException {
+        int length = 0;
+        boolean any = false;
+        while (true) {
+            if (bufferPosition == bufferLimit && !fill()) {
+                return any ? decode(length) : null;
+            }
+            any = true;
+            int end = bufferPosition;
+            while (end < bufferLimit && buffer[end] != '\n') {
+                end++;
+            }
+            int count = end - bufferPosition;
+            if (length + count > line.length) {
+                line = Arrays.copyOf(line, Math.max(line.length * 2, length + count));
+            }
+            System.arraycopy(buffer, bufferPosition, line, length, count);
+            length += count;
+            position += count;
+            if (end < bufferLimit) {
+                bufferPosition = end + 1;
+                position++;
+                return decode(length);
+            }
+            bufferPosition = end;
+        }
+    }
+
+    /**
+     * Method used to discard the first bytes of a stream that cannot be positioned
+     * @param bytes number of bytes to discard
+     * @throws IOException if the file cannot be read
+     */
+    private void skip(long bytes) throws IOException {
+        long remaining = bytes;
+        while (remaining > 0 && fill()) {
+            int discarded = (int) Math.min(remaining, bufferLimit);
+            bufferPosition = discarded;
+            remaining -= discarded;
+        }
+    }
+
+    /**
+     * Method used to read the next block of the file
+     * @return boolean value indicating whether any byte was read
+     * @throws IOException if the file cannot be read
+     */
+    private boolean fill() throws IOException {
+        int read = channel.read(ByteBuffer.wrap(buffer));
+        bufferPosition = 0;
+        bufferLimit = Math.max(read, 0);
+        return read > 0;
+    }
+
+    /**
+     * Method used to decode a line, dropping the carriage return of Windows line terminators
+     * @param length number of bytes of the line
+     * @return decoded line
+     */
+    private String decode(int length) {
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,130 @@
+package com.geocode.search.service.input;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+
+@Getter
+public class MappedInput implements Closeable {
+
+    private static final int SCAN_WINDOW = 64 * 1024;
+    private static final ThreadLocal<byte[]> lineBuffer = ThreadLocal.withInitial(() -> new byte[4096]);
+
+    private final FileChannel channel;
+    private final long size;
+    private final long start;
+
+    /**
+     * Constructor
+     * @param path input file path
+     * @param header boolean value indicating whether the first line is a header to be skipped
+     * @param offset line boundary from which the file is read when resuming, 0 to read the whole file
+     * @throws IOException if the file cannot be opened
+     */
+    public MappedInput(String path, boolean header, long offset) throws IOException {
+        channel = FileChannel.open(Path.of(path), StandardOpenOption.READ);
+        size = channel.size();
+        if (offset > 0) {
+            start = offset;
+        } else {
+            start = header ? nextLineStart(0) : 0;
+        }
+    }
+
+    /**
+     * Method used to find the end of a range, moved forward to the next line boundary
+     * @param from first byte of the range
+     * @param rangeSize nominal size of the range in bytes
+     * @return first byte after the range
+     * @throws IOException if the file cannot be read
+     */
+    public long rangeEnd(long from, long rangeSize) throws IOException {
+        long nominalEnd = from + rangeSize;
+        if (nominalEnd >= size) {
+            return size;
+        }
+        return nextLineStart(nominalEnd - 1);
+    }
+
+    /**
+     * Method used to read the lines of a range aligned on line boundaries
+     * @param from first byte of the range
+     * @param to first byte after the range
+     * @return lines of the range without line terminators
+     * @throws IOException if the file cannot be mapped
+     */
+    public List<String> readLines(long from, long to) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        List<String> lines = new ArrayList<>();
+        int length = mapped.limit();
+        int lineStart = 0;
+        for (int i = 0; i < length; i++) {
+            if (mapped.get(i) == '\n') {
+                lines.add(decode(mapped, lineStart, i));
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart < length) {
+            lines.add(decode(mapped, lineStart, length));
+        }
+        return lines;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Method used to find the first byte of the line following a position
+     * @param position position from which to search for the line terminator
+     * @return first byte of the next line, or the file size if there is none
+     * @throws IOException if the file cannot be read
+     */
+    private long nextLineStart(long position) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(SCAN_WINDOW);
+        while (position < size) {
+            window.clear();
+            int read = channel.read(window, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (window.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Method used to decode a line of the mapped range
+     * @param mapped mapped range
+     * @param from first byte of the line
+     * @param to line terminator position
+     * @return decoded line without the carriage return
+     */
+    private static String decode(MappedByteBuffer mapped, int from, int to) {
+        if (to > from && mapped.get(to - 1) == '\r') {
+            to--;
+        }
+        int length = to - from;
+        byte[] bytes = lineBuffer.get();
+        if (bytes.length < length) {
+            bytes = new byte[Math.max(length, bytes.length * 2)];
+            lineBuffer.set(bytes);
+        }
+        mapped.get(from, bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,67 @@
+package com.geocode.search.service.input;
+
+import com.geocode.search.service.intersect.shapefile.PackedRTree;
+import java.util.Arrays;
+import java.util.List;
+
+public class SpatialOrder {
+
+    private SpatialOrder() {}
+
+    /**
+     * Method used to order the records of a chunk by the Hilbert value of their coordinates,
+     * computed on a grid covering the extent of the chunk
+     * @param lines records of the input file
+     * @param scanner scanner reading the coordinates of a record
+     * @return positions of the records in Hilbert order, records whose coordinates cannot be read come first
+     */
+    public static int[] of(List<String> lines, CoordinateScanner scanner) {
+        int size = lines.size();
+        double[] coordinates = new double[2 * size];
+        boolean[] valid = new boolean[size];
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+
+        Candidate candidate = new Candidate();
+        for (int i = 0; i < size; i++) {
+            double x = Double.NaN;
+            double y = Double.NaN;
+            if (scanner.scan(lines.get(i), candidate) == CoordinateScanner.VALID) {
+                x = candidate.getCoordinateX();
+                y = candidate.getCoordinateY();
+            }
+            valid[i] = Double.isFinite(x) && Double.isFinite(y);
+            if (valid[i]) {
+                coordinates[2 * i] = x;
+                coordinates[2 * i + 1] = y;
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+            }
+        }
+        double width = maxX > minX ? maxX - minX : 1;
+        double height = maxY > minY ? maxY - minY : 1;
+
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            long hilbert = 0;
+            if (valid[i]) {
+                int x = (int) Math.floor(PackedRTree.HILBERT_MAX * (coordinates[2 * i] - minX) / width);
+                int y = (int) Math.floor(PackedRTree.HILBERT_MAX * (coordinates[2 * i + 1] - minY) / height);
+                hilbert = PackedRTree.hilbert(x, y) + 1;
+            }
+            // the Hilbert value takes at most 33 bits, so the key stays positive and sorts like the value
+            keys[i] = (hilbert << 30) | i;
+        }
+        Arrays.sort(keys);
+
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) (keys[i] & ((1 << 30) - 1));
+        }
+        return order;
+    }
+}
@@ -0,0 +1,76 @@
+package com.geocode.search.service.intersect;
+
+import java.util.concurrent.ConcurrentHashMap;
+import org.geotools.referencing.CRS;
+import org.opengis.referencing.FactoryException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+
+public class CoordinateTransforms {
+
+    private static final ConcurrentHashMap<Integer, CoordinateReferenceSystem> sources = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<TransformKey, MathTransform> transforms = new ConcurrentHashMap<>();
+
+    private CoordinateTransforms() {}
+
+    /**
+     * Method used to get the transform from the reference system of the input coordinates to the one of a layer,
+     * created the first time the pair is requested and shared by all the threads
+     * @param sourceCode EPSG code of the input coordinates
+     * @param target reference system of the layer, null if the layer does not declare one
+     * @return transform, null when the coordinates can be used as they are
+     * @throws FactoryException if the EPSG code is unknown or no transform exists between the two systems
+     */
+    public static MathTransform of(int sourceCode, CoordinateReferenceSystem target) throws FactoryException {
+        if (target == null) {
+            return null;
+        }
+        TransformKey key = new TransformKey(sourceCode, target);
+        MathTransform transform = transforms.get(key);
+        if (transform == null) {
+            transform = CRS.findMathTransform(sourceOf(sourceCode), target, true);
+            transforms.putIfAbsent(key, transform);
+        }
+        return transform.isIdentity() ? null : transform;
+    }
+
+    /**
+     * Method used to get the reference system of an EPSG code, with longitude before latitude like the input file
+     * @param code EPSG code
+     * @return reference system
+     * @throws FactoryException if the EPSG code is unknown
+     */
+    private static CoordinateReferenceSystem sourceOf(int code) throws FactoryException {
+        CoordinateReferenceSystem source = sources.get(code);
+        if (source == null) {
+            source = CRS.decode("EPSG:" + code, true);
+            sources.putIfAbsent(code, source);
+        }
+        return source;
+    }
+
+    /**
+     * Layers keep their reference system for their whole life, so the target is compared by identity
+     * instead of comparing the whole definition for every lookup.
+     */
+    private static class TransformKey {
+
+        private final int sourceCode;
+        private final CoordinateReferenceSystem target;
+
+        private TransformKey(int sourceCode, CoordinateReferenceSystem target) {
+            this.sourceCode = sourceCode;
+            this.target = target;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof TransformKey key && key.sourceCode == sourceCode && key.target == target;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sourceCode + System.identityHashCode(target);
+        }
+    }
+}
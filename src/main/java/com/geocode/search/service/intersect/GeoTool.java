@@ -4,73 +4,239 @@ import static com.geocode.search.message.Alert.*;
 
 import com.geocode.search.connection.Database;
 import com.geocode.search.logging.Logger;
+import com.geocode.search.message.Alert;
+import com.geocode.search.metrics.Engine;
+import com.geocode.search.metrics.Metrics;
+import com.geocode.search.service.LookupException;
 import com.geocode.search.service.input.Candidate;
-import com.geocode.search.service.intersect.shapefile.ShapeData;
+import com.geocode.search.service.intersect.database.BatchKnnQuery;
+import com.geocode.search.service.intersect.database.KnnQuery;
+import com.geocode.search.service.intersect.shapefile.LayerFormat;
+import com.geocode.search.service.intersect.shapefile.LayerIndex;
+import com.geocode.search.service.intersect.shapefile.ShapeIndex;
+import com.geocode.search.service.intersect.shapefile.SnapshotIndex;
+import com.geocode.search.service.intersect.shapefile.SnapshotWriter;
 import com.geocode.search.service.output.IntersectResult;
 import com.geocode.search.settings.IntersectParams;
 import io.sentry.Sentry;
+import java.io.Closeable;
 import java.io.File;
-import java.sql.Statement;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Vector;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.geotools.data.DataUtilities;
-import org.geotools.data.FileDataStore;
-import org.geotools.data.FileDataStoreFinder;
-import org.geotools.data.Query;
-import org.geotools.data.collection.SpatialIndexFeatureCollection;
+import org.geotools.data.DataStore;
 import org.geotools.data.simple.SimpleFeatureSource;
-import org.geotools.feature.FeatureIterator;
-import org.geotools.filter.text.cql2.CQL;
 import org.opengis.feature.simple.SimpleFeature;
-import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.referencing.FactoryException;
+import org.opengis.referencing.crs.GeographicCRS;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
 
 @Getter
 @Setter
 @NoArgsConstructor
 public class GeoTool extends Logger {
 
-    private static SimpleFeatureSource source;
-    private static SimpleFeatureType schema;
-    private static final Vector<SimpleFeatureSource> cachedSourceVect = new Vector<>();
-    private static final Vector<SimpleFeatureType> schemaVect = new Vector<>();
+    private static final double DEGREES_PER_METER = 0.00001;
+    private static volatile List<LayerIndex> layers = List.of();
+    private boolean exitOnError = true;
+
+    /**
+     * Constructor, every attribute of the layer is kept, also in the index snapshot when one exists
+     * @param fileName shapefile name
+     * @param activeCache cache enable flag (kept for compatibility, the layer is always indexed in memory)
+     */
+    public GeoTool(String fileName, String activeCache) {
+        this(fileName, activeCache, 0, false, List.of());
+    }
 
     /**
      * Constructor
      * @param fileName shapefile name
-     * @param activeCache cache enable flag
+     * @param activeCache cache enable flag (kept for compatibility, the layer is always indexed in memory)
+     * @param gridResolution number of cells on each side of the acceleration grid (0 to disable it)
+     * @param snapshot boolean value indicating whether the index snapshot must be created when missing
+     * @param columns attributes extracted from the shapefile, every attribute when empty
+     */
+    public GeoTool(String fileName, String activeCache, int gridResolution, boolean snapshot, List<String> columns) {
+        this(fileName, activeCache, gridResolution, snapshot, columns, null);
+    }
+
+    /**
+     * Constructor
+     * @param fileName layer file name (shapefile, GeoJSON or GeoPackage)
+     * @param activeCache cache enable flag (kept for compatibility, the layer is always indexed in memory)
+     * @param gridResolution number of cells on each side of the acceleration grid (0 to disable it)
+     * @param snapshot boolean value indicating whether the index snapshot must be created when missing
+     * @param columns attributes extracted from the layer, every attribute when empty
+     * @param layerName table of a GeoPackage holding the layer, null for the first one
      */
     // spotless:off
-	public GeoTool(String fileName, String activeCache) {
+	public GeoTool(String fileName, String activeCache, int gridResolution, boolean snapshot, List<String> columns, String layerName) {
 
 		File file = new File(fileName);
+		LayerFormat format = Objects.requireNonNullElse(LayerFormat.of(file), LayerFormat.SHAPEFILE);
 		try {
-			printInfo("- Start upload shapefile " + file.getName() + ": " + Calendar.getInstance().getTime());
-			FileDataStore myData = FileDataStoreFinder.getDataStore(file);
-			source = myData.getFeatureSource();
-			schema = source.getSchema();
-
-			if (activeCache.equalsIgnoreCase("S") || activeCache.equalsIgnoreCase("Y")) {
-				cachedSourceVect.add(DataUtilities.source(new SpatialIndexFeatureCollection(source.getFeatures())));
-				schemaVect.add(schema);
-			} else {
-				cachedSourceVect.add(source);
-				schemaVect.add(schema);
+			printInfo("- Start upload " + format + " layer " + file.getName() + ": " + Calendar.getInstance().getTime());
+			File snapshotFile = SnapshotWriter.snapshotOf(file);
+			if (format == LayerFormat.SHAPEFILE && (snapshot || snapshotFile.exists())) {
+				SnapshotIndex snapshotIndex = loadSnapshot(file, columns);
+				publishLayer(snapshotIndex);
+				printInfo("- End upload " + format + " layer " + file.getName() + " from " + snapshotFile.getName() + " (" + snapshotIndex.getSize() + " features): " + Calendar.getInstance().getTime());
+				if (gridResolution > 0) {
+					printInfo("- Grid of " + file.getName() + " not built, it is not available with the index snapshot");
+				}
+				return;
+			}
+			if (format != LayerFormat.SHAPEFILE && snapshot) {
+				printInfo("- Snapshot of " + file.getName() + " not built, it is only available for shapefiles");
+			}
+
+			long start = System.nanoTime();
+			long heapBefore = resetPeakHeap();
+			DataStore dataStore = format.open(file);
+			try {
+				SimpleFeatureSource source = dataStore.getFeatureSource(layerName != null ? layerName : dataStore.getTypeNames()[0]);
+				ShapeIndex shapeIndex = new ShapeIndex(source, gridResolution, columns);
+				publishLayer(shapeIndex);
+				long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+				printInfo("- End upload " + format + " layer " + file.getName() + " (" + shapeIndex.getSize() + " features) in " + elapsed + " ms, peak heap " + toMegabytes(peakHeap()) + " MB (" + toMegabytes(heapBefore) + " MB before loading): " + Calendar.getInstance().getTime());
+				if (shapeIndex.getGridIndex() != null) {
+					printInfo("- Grid of " + file.getName() + ": " + shapeIndex.getGridIndex().describe());
+				}
+			} finally {
+				dataStore.dispose();
 			}
-			printInfo("- End upload shapefile " + file.getName() + ": " + Calendar.getInstance().getTime());
 
 		} catch (Exception e) {
 			printError(ERROR_UPLOAD_SHAPEFILE.description, e.getMessage());
 			Sentry.captureException(e);
-			cachedSourceVect.add(source);
-			schemaVect.add(schema);
+			System.exit(1);
+		}
+	}
+	// spotless:on
+
+    /**
+     * Method used to reset the peak usage of the heap memory pools
+     * @return heap currently used, in bytes
+     */
+    private static long resetPeakHeap() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                used += pool.getUsage().getUsed();
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Method used to read the peak usage of the heap memory pools since the last reset
+     * @return sum of the peak usage of the heap pools, in bytes
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Method used to convert bytes to megabytes
+     * @param bytes number of bytes
+     * @return number of megabytes
+     */
+    private static long toMegabytes(long bytes) {
+        return bytes >> 20;
+    }
+
+    /**
+     * Method used to publish a loaded layer, replacing the list read by the worker threads with a new immutable one
+     * @param layer loaded layer
+     */
+    private static synchronized void publishLayer(LayerIndex layer) {
+        ArrayList<LayerIndex> loaded = new ArrayList<>(layers);
+        loaded.add(layer);
+        layers = List.copyOf(loaded);
+    }
+
+    /**
+     * Method used to release the loaded layers, closing the files mapped by the index snapshots
+     */
+    public static synchronized void releaseLayers() {
+        for (LayerIndex layer : layers) {
+            if (layer instanceof Closeable closeable) {
+                try {
+                    closeable.close();
+                } catch (IOException e) {
+                    printError(ERROR_CLOSE_SNAPSHOT.description, e.getMessage());
+                    Sentry.captureException(e);
+                }
+            }
+        }
+        layers = List.of();
+    }
+
+    /**
+     * Method used to build the index snapshot of a shapefile
+     * @param fileName shapefile name
+     * @param columns attributes stored in the snapshot
+     * @return boolean value indicating whether the snapshot was written
+     */
+    // spotless:off
+	public static boolean buildSnapshot(String fileName, List<String> columns) {
+		File file = new File(fileName);
+		if (LayerFormat.of(file) != LayerFormat.SHAPEFILE) {
+			printInfo("- Snapshot of " + file.getName() + " not built, it is only available for shapefiles");
+			return true;
+		}
+		try {
+			long start = System.currentTimeMillis();
+			int features = SnapshotWriter.write(file, columns);
+			File snapshotFile = SnapshotWriter.snapshotOf(file);
+			printInfo("- Snapshot " + snapshotFile.getName() + " written in " + (System.currentTimeMillis() - start) + " ms (" + features + " features, " + snapshotFile.length() + " bytes)");
+			return true;
+
+		} catch (Exception e) {
+			printError(ERROR_BUILD_SNAPSHOT.description, e.getMessage());
+			Sentry.captureException(e);
+			return false;
 		}
 	}
 	// spotless:on
 
+    /**
+     * Method used to map the index snapshot of a shapefile, rebuilding it when it is missing or stale
+     * @param file shapefile path
+     * @param columns attributes extracted from the shapefile, every attribute when empty
+     * @return mapped snapshot
+     * @throws IOException if the snapshot cannot be built or mapped
+     */
+    private static SnapshotIndex loadSnapshot(File file, List<String> columns) throws IOException {
+        File snapshotFile = SnapshotWriter.snapshotOf(file);
+        List<String> stored = SnapshotWriter.columnsOf(file, columns);
+        if (!SnapshotIndex.matches(snapshotFile, file, stored)) {
+            printInfo("- Snapshot " + snapshotFile.getName() + " missing or stale, rebuilding it");
+            SnapshotWriter.write(file, stored);
+        }
+        return new SnapshotIndex(snapshotFile);
+    }
+
     /**
      * Method used to project coordinates onto the shapefile
      * @param candidate candidate to be projected on the shapefile
@@ -80,36 +246,28 @@ public class GeoTool extends Logger {
     // spotless:off
 	public IntersectResult intersectShapefile(Candidate candidate, IntersectResult intersectResult) {
 
-		ShapeData shapeData = new ShapeData();
+		Metrics.countQuery(Engine.SHAPEFILE);
 		try {
-			shapeData.setFilter(CQL.toFilter("intersects(the_geom, POINT(" + candidate.getCoordinateX() + " " + candidate.getCoordinateY() + "))"));
-
-			for (int i = 0; i < cachedSourceVect.size(); i++) {
-				synchronized (cachedSourceVect) {
-					shapeData.setQuery(new Query(schemaVect.get(i).getTypeName()));
-					shapeData.getQuery().setMaxFeatures(1);
-					shapeData.getQuery().setFilter(shapeData.getFilter());
-					shapeData.setCollection(cachedSourceVect.get(i).getFeatures(shapeData.getQuery()));
-				}
-			}
-
-			try (FeatureIterator<SimpleFeature> features = shapeData.getCollection().features()) {
-				while (features.hasNext()) {
-					intersectResult.getShapeElements().add(features.next());
+			double[] point = new double[2];
+			for (LayerIndex shapeIndex : layers) {
+				project(candidate, shapeIndex, point);
+				SimpleFeature feature = shapeIndex.intersects(point[0], point[1]);
+				if (feature != null) {
+					intersectResult.getShapeElements().add(feature);
 				}
 			}
 
 		} catch (Exception e) {
 			printError(ERROR_INTERSECT_SHAPEFILE.description, e.getMessage());
 			Sentry.captureException(e);
-			System.exit(1);
+			fail(ERROR_INTERSECT_SHAPEFILE, e, false);
 		}
 		return intersectResult;
 	}
 	// spotless:on
 
     /**
-     * Method used to project coordinates onto the shapefile and extract n candidates
+     * Method used to project coordinates onto every loaded layer and extract n candidates from each one
      * @param candidate candidate to be projected on the shapefile
      * @param intersectParams settings used for research
      * @return candidates extracted from the shapefile
@@ -117,39 +275,126 @@ public class GeoTool extends Logger {
     // spotless:off
 	public IntersectResult extractDataFromShapefile(Candidate candidate, IntersectParams intersectParams) {
 
+		Metrics.countQuery(Engine.SHAPEFILE);
 		IntersectResult intersectResult = new IntersectResult();
 		try {
-			double lap = 1;
-			double distance = 0;
-			double increase = 0.00001 * intersectParams.getIncrease();
-			intersectResult = intersectShapefile(candidate, intersectResult);
+			double[] point = new double[2];
+			for (LayerIndex shapeIndex : layers) {
+				project(candidate, shapeIndex, point);
+				List<SimpleFeature> features = nearest(shapeIndex, point[0], point[1], intersectParams);
+				intersectResult.getLayerElements().add(features);
+				intersectResult.getShapeElements().addAll(features);
+			}
+		} catch (Exception e) {
+			printError(ERROR_EXTRACT_DATA_SHAPEFILE.description, e.getMessage());
+			Sentry.captureException(e);
+			fail(ERROR_EXTRACT_DATA_SHAPEFILE, e, false);
+		}
+		return intersectResult;
+	}
+	// spotless:on
 
-			for (int i = 1; i < intersectParams.getAttempts(); i++) {
-				if (intersectResult.getShapeElements().size() == intersectParams.getCandidates()) break;
-				if (distance >= intersectParams.getMaxDistance()) break;
+    /**
+     * Method used to extract n candidates from every loaded layer for coordinates already transformed with projectCandidates
+     * @param coordinates coordinates of the batch in the reference system of each layer
+     * @param position position of the candidate in the batch
+     * @param intersectParams settings used for research
+     * @return candidates extracted from the shapefile
+     */
+    // spotless:off
+	public IntersectResult extractDataFromShapefile(double[][] coordinates, int position, IntersectParams intersectParams) {
 
-				for (double x = candidate.getCoordinateX() - increase;	x <= candidate.getCoordinateX() + increase;	x += increase / lap) {
+		Metrics.countQuery(Engine.SHAPEFILE);
+		IntersectResult intersectResult = new IntersectResult();
+		try {
+			List<LayerIndex> current = layers;
+			for (int layer = 0; layer < current.size(); layer++) {
+				List<SimpleFeature> features = nearest(current.get(layer), coordinates[layer][2 * position], coordinates[layer][2 * position + 1], intersectParams);
+				intersectResult.getLayerElements().add(features);
+				intersectResult.getShapeElements().addAll(features);
+			}
+		} catch (Exception e) {
+			printError(ERROR_EXTRACT_DATA_SHAPEFILE.description, e.getMessage());
+			Sentry.captureException(e);
+			fail(ERROR_EXTRACT_DATA_SHAPEFILE, e, false);
+		}
+		return intersectResult;
+	}
+	// spotless:on
 
-					for (double y = candidate.getCoordinateY() - increase; y <= candidate.getCoordinateY() + increase; y += increase / lap) {
+    /**
+     * Method used to transform a batch of candidates to the reference system of every loaded layer,
+     * with a single call for each distinct transform
+     * @param candidates candidates of the batch, all with the same coordinate type
+     * @return coordinates of the batch as x,y pairs for each layer, layers needing no transform share the input coordinates
+     */
+    // spotless:off
+	public double[][] projectCandidates(List<Candidate> candidates) {
+		int count = candidates.size();
+		double[] source = new double[2 * count];
+		for (int i = 0; i < count; i++) {
+			source[2 * i] = candidates.get(i).getCoordinateX();
+			source[2 * i + 1] = candidates.get(i).getCoordinateY();
+		}
 
-						Candidate point = new Candidate(x, y);
-						intersectResult = intersectShapefile(point, intersectResult);
-						if (intersectResult.getShapeElements().size() == intersectParams.getCandidates()) break;
+		List<LayerIndex> current = layers;
+		double[][] coordinates = new double[current.size()][];
+		MathTransform[] transforms = new MathTransform[current.size()];
+		try {
+			for (int layer = 0; layer < current.size(); layer++) {
+				transforms[layer] = count > 0 ? CoordinateTransforms.of(candidates.get(0).getCoordinateType(), current.get(layer).getCoordinateReferenceSystem()) : null;
+				coordinates[layer] = transforms[layer] == null ? source : null;
+				for (int previous = 0; previous < layer && coordinates[layer] == null; previous++) {
+					if (transforms[previous] == transforms[layer]) {
+						coordinates[layer] = coordinates[previous];
 					}
-
-					if (intersectResult.getShapeElements().size() == intersectParams.getCandidates()) break;
 				}
-
-				distance += intersectParams.getIncrease();
-				increase += 0.00001 * intersectParams.getIncrease();
-				lap++;
+				if (coordinates[layer] == null) {
+					coordinates[layer] = new double[2 * count];
+					transforms[layer].transform(source, 0, coordinates[layer], 0, count);
+				}
 			}
 		} catch (Exception e) {
-			printError(ERROR_EXTRACT_DATA_SHAPEFILE.description, e.getMessage());
+			printError(ERROR_TRANSFORM_COORDINATES.description, e.getMessage());
 			Sentry.captureException(e);
-			System.exit(1);
+			fail(ERROR_TRANSFORM_COORDINATES, e, true);
 		}
-		return intersectResult;
+		return coordinates;
+	}
+	// spotless:on
+
+    /**
+     * Method used to transform the coordinates of a candidate to the reference system of a layer
+     * @param candidate candidate to be projected on the shapefile
+     * @param shapeIndex layer
+     * @param point array receiving the transformed x,y pair
+     * @throws FactoryException if no transform exists for the coordinate type
+     * @throws TransformException if the coordinates cannot be transformed
+     */
+    // spotless:off
+	private static void project(Candidate candidate, LayerIndex shapeIndex, double[] point) throws FactoryException, TransformException {
+		point[0] = candidate.getCoordinateX();
+		point[1] = candidate.getCoordinateY();
+		MathTransform transform = CoordinateTransforms.of(candidate.getCoordinateType(), shapeIndex.getCoordinateReferenceSystem());
+		if (transform != null) {
+			transform.transform(point, 0, point, 0, 1);
+		}
+	}
+	// spotless:on
+
+    /**
+     * Method used to extract the candidates of a layer, converting the maximum distance to the layer units
+     * @param shapeIndex layer
+     * @param x coordinate X in the reference system of the layer
+     * @param y coordinate Y in the reference system of the layer
+     * @param intersectParams settings used for research
+     * @return features ordered by distance from the point
+     */
+    // spotless:off
+	private static List<SimpleFeature> nearest(LayerIndex shapeIndex, double x, double y, IntersectParams intersectParams) {
+		boolean geographic = shapeIndex.getCoordinateReferenceSystem() == null || shapeIndex.getCoordinateReferenceSystem() instanceof GeographicCRS;
+		double maxDistance = intersectParams.getMaxDistance() * (geographic ? DEGREES_PER_METER : 1);
+		return shapeIndex.nearest(x, y, (int) intersectParams.getCandidates(), maxDistance);
 	}
 	// spotless:on
 
@@ -163,25 +408,23 @@ public class GeoTool extends Logger {
      */
     // spotless:off
 	public IntersectResult extractDataFromDatabase(Candidate candidate, Database database, double limit, ArrayList<String> columns) {
-		String query = "SELECT DISTINCT ";
-		for (String column : columns) {
-			query += column + ",";
-		}
-		query += "ST_Distance(geom,ST_SetSRID(ST_MakePoint("
-				+ candidate.getCoordinateX()
-				+ ","
-				+ candidate.getCoordinateY()
-				+ "),"
-				+ candidate.getCoordinateType()
-				+ ")) FROM "
-				+ database.getSchema()
-				+ ".\""
-				+ database.getTable()
-				+ "\" ORDER BY ST_Distance LIMIT "
-				+ limit
-				+ ";";
-
-		return executeIntersect(database, query);
+		return extractDataFromDatabase(candidate, database, limit, columns, database.getSearchRadius());
+	}
+	// spotless:on
+
+    /**
+     * Method used to project the coordinates onto the database and extract the specified columns within a maximum radius
+     * @param candidate candidate to be projected on the database
+     * @param database database connection
+     * @param limit number of candidates to extract
+     * @param columns database columns
+     * @param maxDistance maximum search radius in the units of the table geometry (0 for no limit)
+     * @return list of candidates close to the given point
+     */
+    // spotless:off
+	public IntersectResult extractDataFromDatabase(Candidate candidate, Database database, double limit, ArrayList<String> columns, double maxDistance) {
+		KnnQuery knnQuery = KnnQuery.of(database, columns, maxDistance > 0);
+		return executeIntersect(database, knnQuery, candidate, (int) limit, maxDistance);
 	}
 	// spotless:on
 
@@ -193,43 +436,88 @@ public class GeoTool extends Logger {
      * @return list of candidates close to the given point
      */
     public IntersectResult extractDataFromDatabase(Candidate candidate, Database database, double limit) {
-        String query = "SELECT DISTINCT *,ST_Distance(geom,ST_SetSRID(ST_MakePoint("
-                + candidate.getCoordinateX()
-                + ","
-                + candidate.getCoordinateY()
-                + "),"
-                + candidate.getCoordinateType()
-                + ")) FROM "
-                + database.getSchema()
-                + ".\""
-                + database.getTable()
-                + "\" ORDER BY ST_Distance LIMIT "
-                + limit
-                + ";";
-
-        return executeIntersect(database, query);
+        KnnQuery knnQuery = KnnQuery.of(database, null, database.getSearchRadius() > 0);
+        return executeIntersect(database, knnQuery, candidate, (int) limit, database.getSearchRadius());
     }
 
-    // TODO add a new method that allows you to set a maximum search radius on the database
+    /**
+     * Method used to project a batch of coordinates onto the database with a single query
+     * @param candidates candidates to be projected on the database, all with the same coordinate type
+     * @param database database connection
+     * @param limit number of candidates to extract for each point
+     * @param columns database columns
+     * @return candidates close to each point, ordered by the position of the point in the batch
+     */
+    // spotless:off
+	public IntersectResult extractDataFromDatabase(List<Candidate> candidates, Database database, double limit, ArrayList<String> columns) {
+		Metrics.countQuery(Engine.DATABASE_BATCH);
+		BatchKnnQuery batchKnnQuery = BatchKnnQuery.of(database, columns, database.getSearchRadius() > 0);
+		IntersectResult intersectResult = new IntersectResult();
+		Connection connection = database.connect();
+		PreparedStatement statement = null;
+		try {
+			if (connection != null) {
+				statement = batchKnnQuery.prepare(connection, candidates, (int) limit, database.getSearchRadius());
+				intersectResult.setDbElements(statement.executeQuery());
+			}
+		} catch (Exception e) {
+			printError(ERROR_INTERSECT_DATABASE.description, e.getMessage());
+			Sentry.captureException(e);
+			database.release(connection, statement);
+			if (!exitOnError) {
+				throw new LookupException(ERROR_INTERSECT_DATABASE, e, false);
+			}
+		}
+		return intersectResult;
+	}
+	// spotless:on
 
     /**
      * Method used to extract data from the database
      * @param database database connection
-     * @param query database query
-     * @return list of candidates close to the given point
+     * @param knnQuery nearest neighbour query
+     * @param candidate candidate to be projected on the database
+     * @param limit number of candidates to extract
+     * @param maxDistance maximum search radius in the units of the table geometry
+     * @return list of candidates close to the given point, to be closed with Database.closeResult
      */
-    private IntersectResult executeIntersect(Database database, String query) {
-        IntersectResult intersectResult = new IntersectResult();
-        try {
-            database.connect();
-            if (database.getConnection() != null) {
-                Statement stmt = database.getConnection().createStatement();
-                intersectResult.setDbElements(stmt.executeQuery(query));
-            }
-        } catch (Exception e) {
-            printError(ERROR_INTERSECT_DATABASE.description, e.getMessage());
-            Sentry.captureException(e);
+    // spotless:off
+	private IntersectResult executeIntersect(Database database, KnnQuery knnQuery, Candidate candidate, int limit, double maxDistance) {
+		Metrics.countQuery(Engine.DATABASE);
+		IntersectResult intersectResult = new IntersectResult();
+		Connection connection = database.connect();
+		PreparedStatement statement = null;
+		try {
+			if (connection != null) {
+				if (isDebugEnabled()) {
+					printDebug("Query plan: " + knnQuery.explain(connection, candidate, limit, maxDistance));
+				}
+				statement = knnQuery.prepare(connection, candidate, limit, maxDistance);
+				intersectResult.setDbElements(statement.executeQuery());
+			}
+		} catch (Exception e) {
+			printError(ERROR_INTERSECT_DATABASE.description, e.getMessage());
+			Sentry.captureException(e);
+			database.release(connection, statement);
+			if (!exitOnError) {
+				throw new LookupException(ERROR_INTERSECT_DATABASE, e, false);
+			}
+		}
+		return intersectResult;
+	}
+	// spotless:on
+
+    /**
+     * Method used to stop the lookup after an error, already logged, that prevents a record from being looked up
+     * @param alert error that stopped the lookup
+     * @param cause exception that caused the error
+     * @param invalidInput whether the error is caused by the record being looked up
+     * @throws LookupException if errors do not stop the application
+     */
+    private void fail(Alert alert, Exception cause, boolean invalidInput) {
+        if (exitOnError) {
+            System.exit(1);
         }
-        return intersectResult;
+        throw new LookupException(alert, cause, invalidInput);
     }
 }
@@ -0,0 +1,100 @@
+package com.geocode.search.service.intersect.database;
+
+import com.geocode.search.connection.Database;
+import com.geocode.search.service.input.Candidate;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.postgresql.PGStatement;
+
+@Getter
+@AllArgsConstructor
+public class BatchKnnQuery {
+
+    public static final String INDEX_COLUMN = "input_index";
+    private static final String POINT = "ST_Transform(ST_SetSRID(ST_MakePoint(point.x, point.y), ?), ?)";
+    private static final ConcurrentHashMap<String, BatchKnnQuery> queries = new ConcurrentHashMap<>();
+
+    private final Database database;
+    private final String sql;
+    private final boolean radius;
+
+    /**
+     * Method used to get the query extracting the nearest rows of a table for a batch of candidates
+     * @param database database connection
+     * @param columns columns to extract
+     * @param radius boolean value indicating whether the search is limited by a maximum radius
+     * @return query shared by all the threads
+     */
+    public static BatchKnnQuery of(Database database, List<String> columns, boolean radius) {
+        String projection = String.join(",", columns);
+        String key = database.getSchema() + "." + database.getTable() + "|" + projection + "|" + radius;
+        return queries.computeIfAbsent(key, k -> create(database, projection, radius));
+    }
+
+    /**
+     * Method used to create the query text
+     * @param database database connection
+     * @param projection columns to extract
+     * @param radius boolean value indicating whether the search is limited by a maximum radius
+     * @return query
+     */
+    // spotless:off
+	private static BatchKnnQuery create(Database database, String projection, boolean radius) {
+		String sql = "SELECT input.idx AS " + INDEX_COLUMN + ", nearest.*"
+				+ " FROM (SELECT point.idx, " + POINT + " AS input_point"
+				+ " FROM unnest(?::float8[], ?::float8[]) WITH ORDINALITY AS point(x, y, idx) OFFSET 0) AS input"
+				+ " CROSS JOIN LATERAL (SELECT " + projection + ", geom <-> input.input_point AS knn_distance"
+				+ " FROM " + database.getSchema() + ".\"" + database.getTable() + "\""
+				+ (radius ? " WHERE ST_DWithin(geom,input.input_point,?)" : "")
+				+ " ORDER BY geom <-> input.input_point"
+				+ " LIMIT ?) AS nearest"
+				+ " ORDER BY input.idx, nearest.knn_distance";
+		return new BatchKnnQuery(database, sql, radius);
+	}
+	// spotless:on
+
+    /**
+     * Method used to prepare the query for a batch of candidates
+     * @param connection database connection
+     * @param candidates candidates to be projected on the database, all with the same coordinate type
+     * @param limit number of candidates to extract for each point
+     * @param maxDistance maximum search radius in the units of the table geometry
+     * @return statement ready to be executed, the column input_index holds the 1-based position of the candidate
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public PreparedStatement prepare(Connection connection, List<Candidate> candidates, int limit, double maxDistance)
+            throws SQLException {
+        Double[] coordinatesX = new Double[candidates.size()];
+        Double[] coordinatesY = new Double[candidates.size()];
+        for (int i = 0; i < candidates.size(); i++) {
+            coordinatesX[i] = candidates.get(i).getCoordinateX();
+            coordinatesY[i] = candidates.get(i).getCoordinateY();
+        }
+        int coordinateType = candidates.get(0).getCoordinateType();
+
+        PreparedStatement statement = connection.prepareStatement(sql);
+        try {
+            statement.unwrap(PGStatement.class).setPrepareThreshold(1);
+
+            int index = 1;
+            statement.setInt(index++, coordinateType);
+            statement.setInt(index++, database.getSrid(connection, coordinateType));
+            statement.setArray(index++, connection.createArrayOf("float8", coordinatesX));
+            statement.setArray(index++, connection.createArrayOf("float8", coordinatesY));
+            if (radius) {
+                statement.setDouble(index++, maxDistance);
+            }
+            statement.setInt(index, limit);
+            return statement;
+
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+    }
+}
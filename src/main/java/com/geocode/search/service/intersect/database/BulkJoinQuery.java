@@ -0,0 +1,84 @@
+package com.geocode.search.service.intersect.database;
+
+import com.geocode.search.connection.Database;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class BulkJoinQuery {
+
+    public static final String INPUT_TABLE = "geo_tools_input";
+    public static final String LINE_COLUMN = "input_line";
+    public static final String IDX_COLUMN = "input_idx";
+    public static final String DISTANCE_COLUMN = "knn_distance";
+    public static final String CREATE_INPUT_TABLE = "CREATE TEMPORARY TABLE " + INPUT_TABLE
+            + " (idx bigint, " + LINE_COLUMN + " text, x float8, y float8) ON COMMIT DROP";
+    public static final String COPY_INPUT = "COPY " + INPUT_TABLE + " (idx, " + LINE_COLUMN + ", x, y) FROM STDIN";
+    public static final String INDEX_INPUT_TABLE = "ALTER TABLE " + INPUT_TABLE + " ADD PRIMARY KEY (idx)";
+    public static final String ANALYZE_INPUT_TABLE = "ANALYZE " + INPUT_TABLE;
+    private static final String POINT = "ST_Transform(ST_SetSRID(ST_MakePoint(point.x, point.y), ?), ?)";
+
+    private final Database database;
+    private final String sql;
+    private final boolean radius;
+
+    /**
+     * Method used to create the query joining the whole input table with the nearest rows of a table,
+     * records without candidates are returned once with null columns
+     * @param database database connection
+     * @param columns columns to extract
+     * @param radius boolean value indicating whether the search is limited by a maximum radius
+     * @return query
+     */
+    // spotless:off
+	public static BulkJoinQuery of(Database database, List<String> columns, boolean radius) {
+		String sql = "SELECT input.idx AS " + IDX_COLUMN + ", input." + LINE_COLUMN + ", nearest.*"
+				+ " FROM (SELECT point.idx, point." + LINE_COLUMN + ", " + POINT + " AS input_point"
+				+ " FROM " + INPUT_TABLE + " AS point OFFSET 0) AS input"
+				+ " LEFT JOIN LATERAL (SELECT " + String.join(",", columns) + ", geom <-> input.input_point AS " + DISTANCE_COLUMN
+				+ " FROM " + database.getSchema() + ".\"" + database.getTable() + "\""
+				+ (radius ? " WHERE ST_DWithin(geom,input.input_point,?)" : "")
+				+ " ORDER BY geom <-> input.input_point"
+				+ " LIMIT ?) AS nearest ON true"
+				+ " ORDER BY input.idx, nearest." + DISTANCE_COLUMN;
+		return new BulkJoinQuery(database, sql, radius);
+	}
+	// spotless:on
+
+    /**
+     * Method used to prepare the join, reading the result through a cursor
+     * @param connection database connection with auto commit disabled
+     * @param coordinateType type of the input coordinates
+     * @param limit number of candidates to extract for each point
+     * @param maxDistance maximum search radius in the units of the table geometry
+     * @param fetchSize number of rows fetched for each round trip
+     * @return statement ready to be executed
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public PreparedStatement prepare(
+            Connection connection, int coordinateType, int limit, double maxDistance, int fetchSize)
+            throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        try {
+            statement.setFetchSize(fetchSize);
+
+            int index = 1;
+            statement.setInt(index++, coordinateType);
+            statement.setInt(index++, database.getSrid(connection, coordinateType));
+            if (radius) {
+                statement.setDouble(index++, maxDistance);
+            }
+            statement.setInt(index, limit);
+            return statement;
+
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.geocode.search.service.intersect.database;
+
+import com.geocode.search.connection.Database;
+import com.geocode.search.service.input.Candidate;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.postgresql.PGStatement;
+
+@Getter
+@AllArgsConstructor
+public class KnnQuery {
+
+    private static final String POINT = "ST_Transform(ST_SetSRID(ST_MakePoint(?, ?), ?), ?)";
+    private static final ConcurrentHashMap<String, KnnQuery> queries = new ConcurrentHashMap<>();
+
+    private final Database database;
+    private final String sql;
+    private final boolean distance;
+    private final boolean radius;
+
+    /**
+     * Method used to get the query extracting the nearest rows of a table
+     * @param database database connection
+     * @param columns columns to extract, null to extract all the columns and the distance
+     * @param radius boolean value indicating whether the search is limited by a maximum radius
+     * @return query shared by all the threads
+     */
+    public static KnnQuery of(Database database, List<String> columns, boolean radius) {
+        String projection = columns != null ? String.join(",", columns) : "*";
+        String key = database.getSchema() + "." + database.getTable() + "|" + projection + "|" + radius;
+        return queries.computeIfAbsent(key, k -> create(database, projection, columns == null, radius));
+    }
+
+    /**
+     * Method used to create the query text, the point is bound once and transformed to the SRID of the table
+     * by the database, then shared by the distance, the radius and the ordering
+     * @param database database connection
+     * @param projection columns to extract
+     * @param distance boolean value indicating whether the distance is extracted
+     * @param radius boolean value indicating whether the search is limited by a maximum radius
+     * @return query
+     */
+    // spotless:off
+	private static KnnQuery create(Database database, String projection, boolean distance, boolean radius) {
+		String sql = "SELECT " + (projection.equals("*") ? "layer.*" : projection)
+				+ (distance ? ",ST_Distance(layer.geom,input.input_point) AS st_distance" : "")
+				+ " FROM (SELECT " + POINT + " AS input_point) AS input"
+				+ " CROSS JOIN " + database.getSchema() + ".\"" + database.getTable() + "\" AS layer"
+				+ (radius ? " WHERE ST_DWithin(layer.geom,input.input_point,?)" : "")
+				+ " ORDER BY layer.geom <-> input.input_point"
+				+ " LIMIT ?";
+		return new KnnQuery(database, sql, distance, radius);
+	}
+	// spotless:on
+
+    /**
+     * Method used to prepare the query for a candidate
+     * @param connection database connection
+     * @param candidate candidate to be projected on the database
+     * @param limit number of candidates to extract
+     * @param maxDistance maximum search radius in the units of the table geometry
+     * @return statement ready to be executed
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public PreparedStatement prepare(Connection connection, Candidate candidate, int limit, double maxDistance)
+            throws SQLException {
+        return prepare(connection, sql, candidate, limit, maxDistance);
+    }
+
+    /**
+     * Method used to get the plan type chosen by the database for a candidate
+     * @param connection database connection
+     * @param candidate candidate to be projected on the database
+     * @param limit number of candidates to extract
+     * @param maxDistance maximum search radius in the units of the table geometry
+     * @return scan node used to read the table
+     * @throws SQLException if the plan cannot be read
+     */
+    public String explain(Connection connection, Candidate candidate, int limit, double maxDistance)
+            throws SQLException {
+        String plan = "Unknown";
+        try (PreparedStatement statement = prepare(connection, "EXPLAIN " + sql, candidate, limit, maxDistance);
+                ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                String node = resultSet.getString(1);
+                if (node.contains("Scan")) {
+                    plan = node.replaceAll("^[\\s\\->]*", "").replaceAll("\\s+\\(cost.*$", "");
+                    break;
+                }
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Method used to bind the candidate to a statement
+     * @param connection database connection
+     * @param text query text
+     * @param candidate candidate to be projected on the database
+     * @param limit number of candidates to extract
+     * @param maxDistance maximum search radius in the units of the table geometry
+     * @return statement ready to be executed
+     * @throws SQLException if the statement cannot be prepared
+     */
+    private PreparedStatement prepare(
+            Connection connection, String text, Candidate candidate, int limit, double maxDistance)
+            throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(text);
+        try {
+            statement.unwrap(PGStatement.class).setPrepareThreshold(1);
+
+            int index = 1;
+            statement.setDouble(index++, candidate.getCoordinateX());
+            statement.setDouble(index++, candidate.getCoordinateY());
+            statement.setInt(index++, candidate.getCoordinateType());
+            statement.setInt(index++, database.getSrid(connection, candidate.getCoordinateType()));
+            if (radius) {
+                statement.setDouble(index++, maxDistance);
+            }
+            statement.setInt(index, limit);
+            return statement;
+
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.geocode.search.service.intersect.shapefile;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import lombok.Getter;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+@Getter
+public class GridIndex {
+
+    public static final int MAX_RESOLUTION = 4096;
+    private static final int EMPTY = -1;
+    private static final ShapeEntry[] NO_ENTRIES = new ShapeEntry[0];
+
+    private final Envelope extent;
+    private final int resolution;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final int[] cells;
+    private final ShapeEntry[] entries;
+    private final ShapeEntry[][] boundaries;
+    private int interiorCells;
+    private int emptyCells;
+
+    /**
+     * Constructor, classifies every cell of a uniform grid laid over the layer extent.
+     * A cell is interior when the first feature touching it contains the whole cell, empty when no feature touches it,
+     * and boundary otherwise, in which case it keeps the features to be tested exactly.
+     * @param tree packed index of the layer
+     * @param entries indexed entries ordered by position
+     * @param extent extent of the layer
+     * @param resolution number of cells on each side of the grid, at most {@link #MAX_RESOLUTION}
+     */
+    public GridIndex(PackedRTree tree, ShapeEntry[] entries, Envelope extent, int resolution) {
+        this.extent = extent;
+        this.resolution = resolution;
+        this.entries = entries;
+        this.cellWidth = Math.max(extent.getWidth(), Double.MIN_VALUE) / resolution;
+        this.cellHeight = Math.max(extent.getHeight(), Double.MIN_VALUE) / resolution;
+        this.cells = new int[resolution * resolution];
+
+        GeometryFactory geometryFactory = new GeometryFactory();
+        List<ShapeEntry[]> boundaryList = new ArrayList<>();
+        for (int row = 0; row < resolution; row++) {
+            for (int column = 0; column < resolution; column++) {
+                Envelope cellEnvelope = cellEnvelope(column, row);
+                Geometry cell = geometryFactory.toGeometry(cellEnvelope);
+
+                List<ShapeEntry> found = new ArrayList<>();
+                tree.query(
+                        cellEnvelope.getMinX(),
+                        cellEnvelope.getMaxX(),
+                        cellEnvelope.getMinY(),
+                        cellEnvelope.getMaxY(),
+                        position -> found.add(entries[position]));
+                found.sort(Comparator.comparingInt(ShapeEntry::getPosition));
+                List<ShapeEntry> touching = new ArrayList<>();
+                for (ShapeEntry entry : found) {
+                    if (entry.getGeometry().intersects(cell)) {
+                        touching.add(entry);
+                    }
+                }
+
+                int index = row * resolution + column;
+                if (touching.isEmpty()) {
+                    cells[index] = EMPTY;
+                    emptyCells++;
+                } else if (touching.get(0).getGeometry().contains(cell)) {
+                    cells[index] = touching.get(0).getPosition();
+                    interiorCells++;
+                } else {
+                    cells[index] = -2 - boundaryList.size();
+                    boundaryList.add(touching.toArray(NO_ENTRIES));
+                }
+            }
+        }
+        this.boundaries = boundaryList.toArray(new ShapeEntry[0][]);
+    }
+
+    /**
+     * Method used to find the feature containing the whole cell of a point
+     * @param x coordinate X
+     * @param y coordinate Y
+     * @return feature containing the cell, null if the cell is empty or on a boundary
+     */
+    public ShapeEntry interior(double x, double y) {
+        int cell = cellOf(x, y);
+        return cell >= 0 ? entries[cell] : null;
+    }
+
+    /**
+     * Method used to find the features to be tested exactly for a point
+     * @param x coordinate X
+     * @param y coordinate Y
+     * @return features touching the cell of the point ordered by position, empty if no feature can contain it
+     */
+    public ShapeEntry[] candidates(double x, double y) {
+        int cell = cellOf(x, y);
+        if (cell >= 0) {
+            return new ShapeEntry[] {entries[cell]};
+        }
+        return cell == EMPTY ? NO_ENTRIES : boundaries[-2 - cell];
+    }
+
+    /**
+     * Method used to estimate the heap used by the grid
+     * @return approximate size in bytes
+     */
+    public long memoryUsage() {
+        long bytes = 16L + 4L * cells.length + 16L + 8L * boundaries.length;
+        for (ShapeEntry[] boundary : boundaries) {
+            bytes += 16L + 8L * boundary.length;
+        }
+        return bytes;
+    }
+
+    /**
+     * Method used to describe the grid
+     * @return resolution, classification of the cells and memory usage
+     */
+    public String describe() {
+        return String.format(
+                "%dx%d cells, %d interior, %d empty, %d boundary, %.1f MB",
+                resolution,
+                resolution,
+                interiorCells,
+                emptyCells,
+                boundaries.length,
+                memoryUsage() / (1024.0 * 1024.0));
+    }
+
+    /**
+     * Method used to read the state of the cell containing a point
+     * @param x coordinate X
+     * @param y coordinate Y
+     * @return position of the feature containing the cell, EMPTY, or the encoded boundary list
+     */
+    private int cellOf(double x, double y) {
+        if (!extent.contains(x, y)) {
+            return EMPTY;
+        }
+        int column = Math.min((int) ((x - extent.getMinX()) / cellWidth), resolution - 1);
+        int row = Math.min((int) ((y - extent.getMinY()) / cellHeight), resolution - 1);
+        return cells[row * resolution + column];
+    }
+
+    /**
+     * Method used to calculate the envelope of a cell
+     * @param column column of the cell
+     * @param row row of the cell
+     * @return envelope of the cell
+     */
+    private Envelope cellEnvelope(int column, int row) {
+        double minX = extent.getMinX() + column * cellWidth;
+        double minY = extent.getMinY() + row * cellHeight;
+        return new Envelope(minX, minX + cellWidth, minY, minY + cellHeight);
+    }
+}
@@ -0,0 +1,63 @@
+package com.geocode.search.service.intersect.shapefile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import org.geotools.data.DataStore;
+import org.geotools.data.FileDataStoreFinder;
+import org.geotools.data.geojson.store.GeoJSONDataStore;
+import org.geotools.geopkg.GeoPkgDataStoreFactory;
+
+public enum LayerFormat {
+    SHAPEFILE(".shp"),
+    GEOJSON(".geojson", ".json"),
+    GEOPACKAGE(".gpkg");
+
+    public final String[] extensions;
+
+    LayerFormat(String... extensions) {
+        this.extensions = extensions;
+    }
+
+    /**
+     * Method used to recognize the format of a layer from its extension
+     * @param file layer path
+     * @return format of the layer, null if it is not supported
+     */
+    public static LayerFormat of(File file) {
+        String name = file.getName().toLowerCase();
+        for (LayerFormat format : values()) {
+            for (String extension : format.extensions) {
+                if (name.endsWith(extension)) {
+                    return format;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Method used to open the data store of a layer, the features are read lazily by its iterators
+     * @param file layer path
+     * @return data store of the layer
+     * @throws IOException if the layer cannot be opened
+     */
+    public DataStore open(File file) throws IOException {
+        DataStore dataStore;
+        switch (this) {
+            case GEOJSON -> dataStore = new GeoJSONDataStore(file.toURI().toURL());
+            case GEOPACKAGE -> {
+                Map<String, Object> params = new HashMap<>();
+                params.put(GeoPkgDataStoreFactory.DBTYPE.key, "geopkg");
+                params.put(GeoPkgDataStoreFactory.DATABASE.key, file.getPath());
+                dataStore = new GeoPkgDataStoreFactory().createDataStore(params);
+            }
+            default -> dataStore = FileDataStoreFinder.getDataStore(file);
+        }
+        if (dataStore == null) {
+            throw new IOException("Unable to open the layer " + file.getName());
+        }
+        return dataStore;
+    }
+}
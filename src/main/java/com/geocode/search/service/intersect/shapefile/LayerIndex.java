@@ -0,0 +1,44 @@
+package com.geocode.search.service.intersect.shapefile;
+
+import java.util.List;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+public interface LayerIndex {
+
+    /**
+     * Method used to get the name of the indexed layer
+     * @return layer name
+     */
+    String getTypeName();
+
+    /**
+     * Method used to get the number of indexed features
+     * @return number of features
+     */
+    int getSize();
+
+    /**
+     * Method used to get the reference system of the indexed geometries
+     * @return reference system, null if the layer does not declare one
+     */
+    CoordinateReferenceSystem getCoordinateReferenceSystem();
+
+    /**
+     * Method used to find the feature that intersects the given coordinates
+     * @param x coordinate X
+     * @param y coordinate Y
+     * @return first feature of the layer intersecting the point, null if there is none
+     */
+    SimpleFeature intersects(double x, double y);
+
+    /**
+     * Method used to find the features closest to the given coordinates
+     * @param x coordinate X
+     * @param y coordinate Y
+     * @param candidates maximum number of features to extract
+     * @param maxDistance maximum distance from the point, in layer units
+     * @return features ordered by distance from the point
+     */
+    List<SimpleFeature> nearest(double x, double y, int candidates, double maxDistance);
+}
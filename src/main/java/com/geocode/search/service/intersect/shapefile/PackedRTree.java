@@ -0,0 +1,269 @@
+package com.geocode.search.service.intersect.shapefile;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import lombok.Getter;
+
+/**
+ * Packed R-tree whose leaves are the items sorted along a Hilbert curve.
+ * Nodes are stored level by level in flat arrays: the leaves first, then each parent level, the root last.
+ * The tree is immutable once built, so it can be queried by any number of threads without locking.
+ */
+@Getter
+public class PackedRTree {
+
+    public static final int NODE_SIZE = 16;
+    public static final int HILBERT_MAX = (1 << 16) - 1;
+
+    private final int size;
+    private final double[] boxes;
+    private final int[] indices;
+    private final long[] levelBounds;
+
+    /**
+     * Constructor
+     * @param itemBoxes envelope of every item as minX, minY, maxX, maxY
+     * @param size number of items
+     */
+    public PackedRTree(double[] itemBoxes, int size) {
+        this.size = size;
+        int nodes = nodeCount(size);
+        this.boxes = new double[4 * nodes];
+        this.indices = new int[nodes];
+        this.levelBounds = new long[levelCount(size)];
+
+        long[] order = hilbertOrder(itemBoxes, size);
+        for (int i = 0; i < size; i++) {
+            int item = (int) order[i];
+            System.arraycopy(itemBoxes, 4 * item, boxes, 4 * i, 4);
+            indices[i] = item;
+        }
+
+        int levelStart = 0;
+        int levelEnd = size;
+        int level = 0;
+        int next = size;
+        if (size > 0) {
+            levelBounds[level++] = levelEnd;
+        }
+        while (levelEnd - levelStart > 1) {
+            for (int child = levelStart; child < levelEnd; child += NODE_SIZE) {
+                int last = Math.min(child + NODE_SIZE, levelEnd);
+                double minX = Double.POSITIVE_INFINITY;
+                double minY = Double.POSITIVE_INFINITY;
+                double maxX = Double.NEGATIVE_INFINITY;
+                double maxY = Double.NEGATIVE_INFINITY;
+                for (int i = child; i < last; i++) {
+                    minX = Math.min(minX, boxes[4 * i]);
+                    minY = Math.min(minY, boxes[4 * i + 1]);
+                    maxX = Math.max(maxX, boxes[4 * i + 2]);
+                    maxY = Math.max(maxY, boxes[4 * i + 3]);
+                }
+                boxes[4 * next] = minX;
+                boxes[4 * next + 1] = minY;
+                boxes[4 * next + 2] = maxX;
+                boxes[4 * next + 3] = maxY;
+                indices[next] = child;
+                next++;
+            }
+            levelStart = levelEnd;
+            levelEnd = next;
+            levelBounds[level++] = levelEnd;
+        }
+    }
+
+    /**
+     * Method used to find the items whose envelope intersects a search area
+     * @param minX minimum X of the search area
+     * @param maxX maximum X of the search area
+     * @param minY minimum Y of the search area
+     * @param maxY maximum Y of the search area
+     * @param visitor receives the index of every item found
+     */
+    public void query(double minX, double maxX, double minY, double maxY, IntConsumer visitor) {
+        if (indices.length == 0) {
+            return;
+        }
+
+        int[] stack = new int[64];
+        int depth = 0;
+        int root = indices.length - 1;
+        if (intersects(root, minX, maxX, minY, maxY)) {
+            stack[depth++] = root;
+        }
+        while (depth > 0) {
+            int node = stack[--depth];
+            int level = levelOf(node);
+            if (level == 0) {
+                visitor.accept(indices[node]);
+                continue;
+            }
+            int first = indices[node];
+            int last = (int) Math.min(first + NODE_SIZE, levelBounds[level - 1]);
+            for (int child = first; child < last; child++) {
+                if (intersects(child, minX, maxX, minY, maxY)) {
+                    if (depth == stack.length) {
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+                    stack[depth++] = child;
+                }
+            }
+        }
+    }
+
+    /**
+     * Method used to check whether the box of a node intersects the search area
+     * @param node node index
+     * @param minX minimum X of the search area
+     * @param maxX maximum X of the search area
+     * @param minY minimum Y of the search area
+     * @param maxY maximum Y of the search area
+     * @return boolean value indicating whether the node must be visited
+     */
+    private boolean intersects(int node, double minX, double maxX, double minY, double maxY) {
+        return boxes[4 * node] <= maxX
+                && boxes[4 * node + 1] <= maxY
+                && boxes[4 * node + 2] >= minX
+                && boxes[4 * node + 3] >= minY;
+    }
+
+    /**
+     * Method used to find the level of a node
+     * @param node node index
+     * @return level, 0 for the leaves
+     */
+    private int levelOf(int node) {
+        int level = 0;
+        while (node >= levelBounds[level]) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Method used to order the items by the Hilbert value of the centre of their envelope
+     * @param itemBoxes envelope of every item
+     * @param size number of items
+     * @return item indices in Hilbert order, in the low 32 bits of each value
+     */
+    private static long[] hilbertOrder(double[] itemBoxes, int size) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            minX = Math.min(minX, itemBoxes[4 * i]);
+            minY = Math.min(minY, itemBoxes[4 * i + 1]);
+            maxX = Math.max(maxX, itemBoxes[4 * i + 2]);
+            maxY = Math.max(maxY, itemBoxes[4 * i + 3]);
+        }
+        double width = maxX > minX ? maxX - minX : 1;
+        double height = maxY > minY ? maxY - minY : 1;
+
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) {
+            double centreX = (itemBoxes[4 * i] + itemBoxes[4 * i + 2]) / 2;
+            double centreY = (itemBoxes[4 * i + 1] + itemBoxes[4 * i + 3]) / 2;
+            int x = (int) Math.floor(HILBERT_MAX * (centreX - minX) / width);
+            int y = (int) Math.floor(HILBERT_MAX * (centreY - minY) / height);
+            // the sign bit is flipped so that the signed sort follows the unsigned Hilbert value
+            order[i] = ((hilbert(x, y) << 32) | i) ^ Long.MIN_VALUE;
+        }
+        Arrays.sort(order);
+        for (int i = 0; i < size; i++) {
+            order[i] &= 0xFFFFFFFFL;
+        }
+        return order;
+    }
+
+    /**
+     * Method used to calculate the position of a cell along a Hilbert curve of order 16
+     * @param x column of the cell, between 0 and 65535
+     * @param y row of the cell, between 0 and 65535
+     * @return position along the curve
+     */
+    public static long hilbert(int x, int y) {
+        int a = x ^ y;
+        int b = 0xFFFF ^ a;
+        int c = 0xFFFF ^ (x | y);
+        int d = x & (y ^ 0xFFFF);
+
+        int aa = a | (b >> 1);
+        int bb = (a >> 1) ^ a;
+        int cc = ((c >> 1) ^ (b & (d >> 1))) ^ c;
+        int dd = ((a & (c >> 1)) ^ (d >> 1)) ^ d;
+
+        a = aa;
+        b = bb;
+        c = cc;
+        d = dd;
+        aa = (a & (a >> 2)) ^ (b & (b >> 2));
+        bb = (a & (b >> 2)) ^ (b & ((a ^ b) >> 2));
+        cc ^= (a & (c >> 2)) ^ (b & (d >> 2));
+        dd ^= (b & (c >> 2)) ^ ((a ^ b) & (d >> 2));
+
+        a = aa;
+        b = bb;
+        c = cc;
+        d = dd;
+        aa = (a & (a >> 4)) ^ (b & (b >> 4));
+        bb = (a & (b >> 4)) ^ (b & ((a ^ b) >> 4));
+        cc ^= (a & (c >> 4)) ^ (b & (d >> 4));
+        dd ^= (b & (c >> 4)) ^ ((a ^ b) & (d >> 4));
+
+        a = aa;
+        b = bb;
+        c = cc;
+        d = dd;
+        cc ^= (a & (c >> 8)) ^ (b & (d >> 8));
+        dd ^= (b & (c >> 8)) ^ ((a ^ b) & (d >> 8));
+
+        a = cc ^ (cc >> 1);
+        b = dd ^ (dd >> 1);
+
+        int i0 = x ^ y;
+        int i1 = b | (0xFFFF ^ (i0 | a));
+        i0 = (i0 | (i0 << 8)) & 0x00FF00FF;
+        i0 = (i0 | (i0 << 4)) & 0x0F0F0F0F;
+        i0 = (i0 | (i0 << 2)) & 0x33333333;
+        i0 = (i0 | (i0 << 1)) & 0x55555555;
+        i1 = (i1 | (i1 << 8)) & 0x00FF00FF;
+        i1 = (i1 | (i1 << 4)) & 0x0F0F0F0F;
+        i1 = (i1 | (i1 << 2)) & 0x33333333;
+        i1 = (i1 | (i1 << 1)) & 0x55555555;
+        return ((i1 << 1) | i0) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Method used to calculate the number of nodes of the packed tree, leaves included
+     * @param items number of features
+     * @return number of nodes
+     */
+    static int nodeCount(int items) {
+        int nodes = items;
+        int level = items;
+        while (level > 1) {
+            level = (level + NODE_SIZE - 1) / NODE_SIZE;
+            nodes += level;
+        }
+        return nodes;
+    }
+
+    /**
+     * Method used to calculate the number of levels of the packed tree, leaves included
+     * @param items number of features
+     * @return number of levels
+     */
+    static int levelCount(int items) {
+        if (items == 0) {
+            return 0;
+        }
+        int levels = 1;
+        int level = items;
+        while (level > 1) {
+            level = (level + NODE_SIZE - 1) / NODE_SIZE;
+            levels++;
+        }
+        return levels;
+    }
+}
@@ -0,0 +1,50 @@
+package com.geocode.search.service.intersect.shapefile;
+
+import lombok.Getter;
+import org.locationtech.jts.algorithm.locate.IndexedPointInAreaLocator;
+import org.locationtech.jts.algorithm.locate.PointOnGeometryLocator;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Location;
+import org.locationtech.jts.geom.Polygonal;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.opengis.feature.simple.SimpleFeature;
+
+@Getter
+public class ShapeEntry {
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+    private final int position;
+    private final PreparedGeometry geometry;
+    private final SimpleFeature feature;
+    private final PointOnGeometryLocator locator;
+
+    /**
+     * Constructor
+     * @param position position of the feature in the layer
+     * @param geometry prepared geometry of the feature
+     * @param feature feature read from the layer
+     */
+    public ShapeEntry(int position, PreparedGeometry geometry, SimpleFeature feature) {
+        this.position = position;
+        this.geometry = geometry;
+        this.feature = feature;
+        // the locator of a prepared polygon is reached through a synchronized getter, so polygons keep their own
+        this.locator = geometry.getGeometry() instanceof Polygonal
+                ? new IndexedPointInAreaLocator(geometry.getGeometry())
+                : null;
+    }
+
+    /**
+     * Method used to check whether a point intersects the feature, without locking shared state
+     * @param coordinate coordinates of the point
+     * @return boolean value indicating whether the point is inside or on the boundary of the feature
+     */
+    public boolean intersects(Coordinate coordinate) {
+        if (locator != null) {
+            return locator.locate(coordinate) != Location.EXTERIOR;
+        }
+        return geometry.getGeometry().intersects(GEOMETRY_FACTORY.createPoint(coordinate));
+    }
+}
@@ -0,0 +1,226 @@
+package com.geocode.search.service.intersect.shapefile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.geotools.data.Query;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.Filter;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+@Getter
+public class ShapeIndex implements LayerIndex {
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+    private static final Comparator<Neighbour> NEIGHBOUR_ORDER = Comparator.comparingDouble(Neighbour::getDistance)
+            .thenComparingInt(neighbour -> neighbour.getEntry().getPosition());
+
+    private final String typeName;
+    private final CoordinateReferenceSystem coordinateReferenceSystem;
+    private final ShapeEntry[] entries;
+    private final Envelope extent = new Envelope();
+    private final PackedRTree tree;
+    private final GridIndex gridIndex;
+    private final int size;
+
+    /**
+     * Constructor
+     * @param source layer to be loaded into the index
+     * @throws IOException if the layer cannot be read
+     */
+    public ShapeIndex(SimpleFeatureSource source) throws IOException {
+        this(source, 0);
+    }
+
+    /**
+     * Constructor, every field is final so the index can be shared by the worker threads without locking
+     * @param source layer to be loaded into the index
+     * @param gridResolution number of cells on each side of the acceleration grid (0 to disable it)
+     * @throws IOException if the layer cannot be read
+     */
+    public ShapeIndex(SimpleFeatureSource source, int gridResolution) throws IOException {
+        this(source, gridResolution, List.of());
+    }
+
+    /**
+     * Constructor, the features are streamed from the source one at a time and only the geometry and the
+     * extracted attributes are kept in memory
+     * @param source layer to be loaded into the index
+     * @param gridResolution number of cells on each side of the acceleration grid (0 to disable it)
+     * @param columns attributes extracted from the layer, every attribute is kept when empty
+     * @throws IOException if the layer cannot be read
+     */
+    public ShapeIndex(SimpleFeatureSource source, int gridResolution, List<String> columns) throws IOException {
+        typeName = source.getSchema().getTypeName();
+        coordinateReferenceSystem = source.getSchema().getCoordinateReferenceSystem();
+
+        List<ShapeEntry> loaded = new ArrayList<>();
+        double[] boxes = new double[4 * 1024];
+        try (SimpleFeatureIterator features = source.getFeatures(query(source.getSchema(), columns)).features()) {
+            while (features.hasNext()) {
+                SimpleFeature feature = features.next();
+                Geometry geometry = (Geometry) feature.getDefaultGeometry();
+                if (geometry == null || geometry.isEmpty()) {
+                    continue;
+                }
+                Envelope envelope = geometry.getEnvelopeInternal();
+                if (4 * loaded.size() + 4 > boxes.length) {
+                    boxes = Arrays.copyOf(boxes, boxes.length * 2);
+                }
+                boxes[4 * loaded.size()] = envelope.getMinX();
+                boxes[4 * loaded.size() + 1] = envelope.getMinY();
+                boxes[4 * loaded.size() + 2] = envelope.getMaxX();
+                boxes[4 * loaded.size() + 3] = envelope.getMaxY();
+                extent.expandToInclude(envelope);
+                loaded.add(new ShapeEntry(loaded.size(), PreparedGeometryFactory.prepare(geometry), feature));
+            }
+        }
+        entries = loaded.toArray(new ShapeEntry[0]);
+        size = entries.length;
+        tree = new PackedRTree(boxes, size);
+        gridIndex = gridResolution > 0 && size > 0 ? new GridIndex(tree, entries, extent, gridResolution) : null;
+    }
+
+    /**
+     * Method used to build the query reading the geometry and the extracted attributes of the layer
+     * @param schema layer schema
+     * @param columns attributes extracted from the layer, every attribute is read when empty
+     * @return query of the layer
+     */
+    private static Query query(SimpleFeatureType schema, List<String> columns) {
+        if (columns.isEmpty() || schema.getGeometryDescriptor() == null) {
+            return new Query(schema.getTypeName());
+        }
+        List<String> properties = new ArrayList<>();
+        properties.add(schema.getGeometryDescriptor().getLocalName());
+        for (String column : columns) {
+            if (schema.getDescriptor(column) != null && !properties.contains(column)) {
+                properties.add(column);
+            }
+        }
+        return new Query(schema.getTypeName(), Filter.INCLUDE, properties.toArray(new String[0]));
+    }
+
+    @Override
+    public SimpleFeature intersects(double x, double y) {
+        Coordinate coordinate = new Coordinate(x, y);
+        if (gridIndex != null) {
+            for (ShapeEntry entry : gridIndex.candidates(x, y)) {
+                if (entry.intersects(coordinate)) {
+                    return entry.getFeature();
+                }
+            }
+            return null;
+        }
+
+        int[] found = {-1};
+        tree.query(x, x, y, y, position -> {
+            if ((found[0] < 0 || position < found[0]) && entries[position].intersects(coordinate)) {
+                found[0] = position;
+            }
+        });
+        return found[0] >= 0 ? entries[found[0]].getFeature() : null;
+    }
+
+    @Override
+    public List<SimpleFeature> nearest(double x, double y, int candidates, double maxDistance) {
+        if (candidates <= 0 || size == 0) {
+            return new ArrayList<>();
+        }
+        if (candidates == 1 && gridIndex != null) {
+            ShapeEntry interior = gridIndex.interior(x, y);
+            if (interior != null) {
+                List<SimpleFeature> features = new ArrayList<>(1);
+                features.add(interior.getFeature());
+                return features;
+            }
+        }
+
+        List<ShapeEntry> found = new ArrayList<>();
+        tree.query(
+                x - maxDistance, x + maxDistance, y - maxDistance, y + maxDistance, position -> found.add(entries[position]));
+        return rank(found, x, y, candidates, maxDistance);
+    }
+
+    /**
+     * Method used to rank the entries found around a point by their exact distance
+     * @param found entries whose envelope is within the search area
+     * @param x coordinate X
+     * @param y coordinate Y
+     * @param candidates maximum number of features to extract
+     * @param maxDistance maximum distance from the point, in layer units
+     * @return features ordered by distance from the point, then by position in the layer
+     */
+    static List<SimpleFeature> rank(List<ShapeEntry> found, double x, double y, int candidates, double maxDistance) {
+        List<SimpleFeature> features = new ArrayList<>();
+        if (found.isEmpty()) {
+            return features;
+        }
+
+        List<Neighbour> neighbours = new ArrayList<>(found.size());
+        for (ShapeEntry entry : found) {
+            neighbours.add(new Neighbour(entry, envelopeDistance(entry, x, y)));
+        }
+        neighbours.sort(Comparator.comparingDouble(Neighbour::getDistance));
+
+        // exact distances are only computed while the envelope bound can still beat the worst accepted candidate
+        Point point = GEOMETRY_FACTORY.createPoint(new Coordinate(x, y));
+        List<Neighbour> nearest = new ArrayList<>(candidates + 1);
+        double limit = maxDistance;
+        for (Neighbour neighbour : neighbours) {
+            if (neighbour.getDistance() > limit) {
+                break;
+            }
+            double distance = neighbour.getEntry().getGeometry().getGeometry().distance(point);
+            if (distance <= limit) {
+                nearest.add(new Neighbour(neighbour.getEntry(), distance));
+                nearest.sort(NEIGHBOUR_ORDER);
+                if (nearest.size() > candidates) {
+                    nearest.remove(candidates);
+                }
+                if (nearest.size() == candidates) {
+                    limit = nearest.get(candidates - 1).getDistance();
+                }
+            }
+        }
+
+        for (Neighbour neighbour : nearest) {
+            features.add(neighbour.getEntry().getFeature());
+        }
+        return features;
+    }
+
+    /**
+     * Method used to calculate the distance between a point and the envelope of an entry
+     * @param entry indexed entry
+     * @param x coordinate X
+     * @param y coordinate Y
+     * @return lower bound of the distance between the point and the entry geometry
+     */
+    private static double envelopeDistance(ShapeEntry entry, double x, double y) {
+        Envelope envelope = entry.getGeometry().getGeometry().getEnvelopeInternal();
+        double dx = Math.max(0, Math.max(envelope.getMinX() - x, x - envelope.getMaxX()));
+        double dy = Math.max(0, Math.max(envelope.getMinY() - y, y - envelope.getMaxY()));
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Neighbour {
+        private final ShapeEntry entry;
+        private final double distance;
+    }
+}
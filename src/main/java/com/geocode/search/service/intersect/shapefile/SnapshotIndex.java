@@ -0,0 +1,383 @@
+package com.geocode.search.service.intersect.shapefile;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import lombok.Getter;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.referencing.CRS;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.referencing.FactoryException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+@Getter
+public class SnapshotIndex implements LayerIndex, Closeable {
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    private final String typeName;
+    private final CoordinateReferenceSystem coordinateReferenceSystem;
+    private final int size;
+    private final List<String> columns;
+    private final SimpleFeatureType featureType;
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final int nodeCount;
+    private final long[] levelBounds;
+    private final long boxesStart;
+    private final long offsetsStart;
+    private final long indicesStart;
+    private final long recordsStart;
+    private final AtomicReferenceArray<ShapeEntry> entries;
+
+    /**
+     * Constructor, maps the snapshot without reading its features
+     * @param snapshot snapshot file
+     * @throws IOException if the snapshot cannot be read
+     */
+    public SnapshotIndex(File snapshot) throws IOException {
+        Header header = Header.read(snapshot);
+        if (header == null) {
+            throw new IOException("Invalid index snapshot " + snapshot.getName());
+        }
+        typeName = header.typeName;
+        size = header.count;
+        columns = header.columns;
+        nodeCount = header.nodeCount;
+        try {
+            coordinateReferenceSystem = header.crs.isEmpty() ? null : CRS.parseWKT(header.crs);
+        } catch (FactoryException e) {
+            throw new IOException("Invalid reference system in index snapshot " + snapshot.getName(), e);
+        }
+
+        SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
+        typeBuilder.setName(typeName);
+        typeBuilder.setCRS(coordinateReferenceSystem);
+        typeBuilder.add("the_geom", Geometry.class);
+        for (String column : columns) {
+            typeBuilder.add(column, String.class);
+        }
+        featureType = typeBuilder.buildFeatureType();
+
+        channel = FileChannel.open(snapshot.toPath(), StandardOpenOption.READ);
+        long fileSize = channel.size();
+        segments = new MappedByteBuffer[(int) ((fileSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+        for (int i = 0; i < segments.length; i++) {
+            long start = i * SEGMENT_SIZE;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, fileSize - start));
+        }
+
+        levelBounds = new long[header.levelCount];
+        long position = header.length;
+        for (int i = 0; i < levelBounds.length; i++) {
+            levelBounds[i] = getLong(position);
+            position += 8;
+        }
+        boxesStart = position;
+        offsetsStart = boxesStart + 32L * nodeCount;
+        indicesStart = offsetsStart + 8L * (size + 1);
+        recordsStart = indicesStart + 4L * nodeCount;
+        entries = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Method used to check whether a snapshot was built from the current shapefile with the required attributes
+     * @param snapshot snapshot file
+     * @param shapefile shapefile path
+     * @param columns attributes required by the configuration
+     * @return boolean value indicating whether the snapshot can be used
+     */
+    public static boolean matches(File snapshot, File shapefile, List<String> columns) {
+        if (!snapshot.exists()) {
+            return false;
+        }
+        Header header;
+        try {
+            header = Header.read(snapshot);
+        } catch (IOException e) {
+            return false;
+        }
+        File dbf = SnapshotWriter.dbfOf(shapefile);
+        return header != null
+                && header.shpSize == shapefile.length()
+                && header.shpModified == shapefile.lastModified()
+                && header.dbfSize == dbf.length()
+                && header.dbfModified == dbf.lastModified()
+                && header.columns.containsAll(columns);
+    }
+
+    @Override
+    public SimpleFeature intersects(double x, double y) {
+        Coordinate coordinate = new Coordinate(x, y);
+        int found = -1;
+        for (int position : query(x, x, y, y)) {
+            if ((found < 0 || position < found) && entry(position).intersects(coordinate)) {
+                found = position;
+            }
+        }
+        return found >= 0 ? entry(found).getFeature() : null;
+    }
+
+    @Override
+    public List<SimpleFeature> nearest(double x, double y, int candidates, double maxDistance) {
+        if (candidates <= 0 || size == 0) {
+            return new ArrayList<>();
+        }
+        List<ShapeEntry> found = new ArrayList<>();
+        for (int position : query(x - maxDistance, x + maxDistance, y - maxDistance, y + maxDistance)) {
+            found.add(entry(position));
+        }
+        return ShapeIndex.rank(found, x, y, candidates, maxDistance);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Method used to walk the packed tree
+     * @param minX minimum X of the search area
+     * @param maxX maximum X of the search area
+     * @param minY minimum Y of the search area
+     * @param maxY maximum Y of the search area
+     * @return positions of the features whose envelope intersects the search area
+     */
+    private List<Integer> query(double minX, double maxX, double minY, double maxY) {
+        List<Integer> found = new ArrayList<>();
+        if (nodeCount == 0) {
+            return found;
+        }
+
+        int[] stack = new int[64];
+        int depth = 0;
+        int root = nodeCount - 1;
+        if (boxIntersects(root, minX, maxX, minY, maxY)) {
+            stack[depth++] = root;
+        }
+        while (depth > 0) {
+            int node = stack[--depth];
+            int level = levelOf(node);
+            if (level == 0) {
+                found.add(getInt(indicesStart + 4L * node));
+                continue;
+            }
+            int first = getInt(indicesStart + 4L * node);
+            int last = (int) Math.min(first + PackedRTree.NODE_SIZE, levelBounds[level - 1]);
+            for (int child = first; child < last; child++) {
+                if (boxIntersects(child, minX, maxX, minY, maxY)) {
+                    if (depth == stack.length) {
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+                    stack[depth++] = child;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Method used to check whether the box of a node intersects the search area
+     * @param node node index
+     * @param minX minimum X of the search area
+     * @param maxX maximum X of the search area
+     * @param minY minimum Y of the search area
+     * @param maxY maximum Y of the search area
+     * @return boolean value indicating whether the node must be visited
+     */
+    private boolean boxIntersects(int node, double minX, double maxX, double minY, double maxY) {
+        long box = boxesStart + 32L * node;
+        return getDouble(box) <= maxX
+                && getDouble(box + 8) <= maxY
+                && getDouble(box + 16) >= minX
+                && getDouble(box + 24) >= minY;
+    }
+
+    /**
+     * Method used to find the level of a node
+     * @param node node index
+     * @return level, 0 for the leaves
+     */
+    private int levelOf(int node) {
+        int level = 0;
+        while (node >= levelBounds[level]) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Method used to get a feature, decoding its record the first time it is requested
+     * @param position position of the feature in the layer
+     * @return indexed entry
+     */
+    private ShapeEntry entry(int position) {
+        ShapeEntry entry = entries.get(position);
+        if (entry == null) {
+            entries.compareAndSet(position, null, decode(position));
+            entry = entries.get(position);
+        }
+        return entry;
+    }
+
+    /**
+     * Method used to decode the record of a feature
+     * @param position position of the feature in the layer
+     * @return indexed entry
+     */
+    private ShapeEntry decode(int position) {
+        long start = recordsStart + getLong(offsetsStart + 8L * position);
+        long end = recordsStart + getLong(offsetsStart + 8L * (position + 1));
+        ByteBuffer record = ByteBuffer.wrap(getBytes(start, (int) (end - start)));
+
+        Object[] values = new Object[columns.size() + 1];
+        byte[] wkb = new byte[record.getInt()];
+        record.get(wkb);
+        Geometry geometry;
+        try {
+            geometry = new WKBReader(GEOMETRY_FACTORY).read(wkb);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Invalid geometry in index snapshot at position " + position, e);
+        }
+        values[0] = geometry;
+        for (int i = 0; i < columns.size(); i++) {
+            int length = record.getInt();
+            if (length >= 0) {
+                values[i + 1] = new String(record.array(), record.position(), length, StandardCharsets.UTF_8);
+                record.position(record.position() + length);
+            }
+        }
+
+        SimpleFeature feature = SimpleFeatureBuilder.build(featureType, values, typeName + "." + (position + 1));
+        return new ShapeEntry(position, PreparedGeometryFactory.prepare(geometry), feature);
+    }
+
+    /**
+     * Method used to read a long from the mapped snapshot
+     * @param position position in the file
+     * @return value
+     */
+    private long getLong(long position) {
+        return segments[(int) (position / SEGMENT_SIZE)].getLong((int) (position % SEGMENT_SIZE));
+    }
+
+    /**
+     * Method used to read an int from the mapped snapshot
+     * @param position position in the file
+     * @return value
+     */
+    private int getInt(long position) {
+        return segments[(int) (position / SEGMENT_SIZE)].getInt((int) (position % SEGMENT_SIZE));
+    }
+
+    /**
+     * Method used to read a double from the mapped snapshot
+     * @param position position in the file
+     * @return value
+     */
+    private double getDouble(long position) {
+        return segments[(int) (position / SEGMENT_SIZE)].getDouble((int) (position % SEGMENT_SIZE));
+    }
+
+    /**
+     * Method used to copy a range of the mapped snapshot, which may span two segments
+     * @param position position in the file
+     * @param length number of bytes
+     * @return copied bytes
+     */
+    private byte[] getBytes(long position, int length) {
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            MappedByteBuffer segment = segments[(int) ((position + copied) / SEGMENT_SIZE)];
+            int offset = (int) ((position + copied) % SEGMENT_SIZE);
+            int chunk = Math.min(length - copied, segment.capacity() - offset);
+            segment.get(offset, bytes, copied, chunk);
+            copied += chunk;
+        }
+        return bytes;
+    }
+
+    private static class Header {
+
+        private long shpSize;
+        private long shpModified;
+        private long dbfSize;
+        private long dbfModified;
+        private int count;
+        private int nodeCount;
+        private int levelCount;
+        private String typeName;
+        private String crs;
+        private List<String> columns;
+        private long length;
+
+        /**
+         * Method used to read the header of a snapshot
+         * @param snapshot snapshot file
+         * @return header, null if the file is not a snapshot of the current version
+         * @throws IOException if the snapshot cannot be read
+         */
+        private static Header read(File snapshot) throws IOException {
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshot)))) {
+                if (input.readLong() != SnapshotWriter.MAGIC
+                        || input.readInt() != SnapshotWriter.VERSION
+                        || input.readInt() != PackedRTree.NODE_SIZE) {
+                    return null;
+                }
+                Header header = new Header();
+                header.shpSize = input.readLong();
+                header.shpModified = input.readLong();
+                header.dbfSize = input.readLong();
+                header.dbfModified = input.readLong();
+                header.count = input.readInt();
+                header.nodeCount = input.readInt();
+                header.levelCount = input.readInt();
+                long length = 8 + 4 + 4 + 4 * 8 + 3 * 4;
+
+                byte[] typeName = new byte[input.readInt()];
+                input.readFully(typeName);
+                header.typeName = new String(typeName, StandardCharsets.UTF_8);
+                length += 4 + typeName.length;
+
+                byte[] crs = new byte[input.readInt()];
+                input.readFully(crs);
+                header.crs = new String(crs, StandardCharsets.UTF_8);
+                length += 4 + crs.length;
+
+                int columnCount = input.readInt();
+                length += 4;
+                header.columns = new ArrayList<>(columnCount);
+                for (int i = 0; i < columnCount; i++) {
+                    byte[] column = new byte[input.readInt()];
+                    input.readFully(column);
+                    header.columns.add(new String(column, StandardCharsets.UTF_8));
+                    length += 4 + column.length;
+                }
+                header.length = (length + 7) / 8 * 8;
+                return header;
+            }
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.geocode.search.service.intersect.shapefile;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.geotools.data.FileDataStore;
+import org.geotools.data.FileDataStoreFinder;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKBWriter;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.feature.type.GeometryDescriptor;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+/**
+ * Snapshot layout, all values big endian:
+ * header (magic, version, node size, size and modification time of .shp and .dbf, counts, layer name,
+ * reference system as WKT, empty if the layer does not declare one, columns),
+ * padded to 8 bytes, then the level bounds (long), node boxes (4 doubles) of the {@link PackedRTree},
+ * record offsets (long), node indices (int) and the records, each one holding the WKB geometry
+ * and the projected attributes as UTF-8 strings.
+ */
+public class SnapshotWriter {
+
+    static final long MAGIC = 0x4754494458303031L;
+    static final int VERSION = 2;
+    static final String EXTENSION = ".gtidx";
+
+    private int count;
+    private double[] boxes = new double[4 * 1024];
+    private long[] offsets = new long[1024 + 1];
+
+    /**
+     * Method used to get the snapshot file of a shapefile
+     * @param shapefile shapefile path
+     * @return snapshot path, next to the shapefile
+     */
+    public static File snapshotOf(File shapefile) {
+        return sibling(shapefile, EXTENSION);
+    }
+
+    /**
+     * Method used to get the attribute file of a shapefile
+     * @param shapefile shapefile path
+     * @return .dbf path, next to the shapefile
+     */
+    static File dbfOf(File shapefile) {
+        File dbf = sibling(shapefile, ".dbf");
+        File upperDbf = sibling(shapefile, ".DBF");
+        return !dbf.exists() && upperDbf.exists() ? upperDbf : dbf;
+    }
+
+    /**
+     * Method used to get the attributes stored in the snapshot of a shapefile
+     * @param shapefile shapefile path
+     * @param columns attributes required by the configuration, every attribute of the shapefile when empty
+     * @return attributes stored in the snapshot
+     * @throws IOException if the shapefile cannot be read
+     */
+    public static List<String> columnsOf(File shapefile, List<String> columns) throws IOException {
+        if (!columns.isEmpty()) {
+            return columns;
+        }
+        FileDataStore dataStore = FileDataStoreFinder.getDataStore(shapefile);
+        try {
+            return attributesOf(dataStore.getSchema());
+        } finally {
+            dataStore.dispose();
+        }
+    }
+
+    /**
+     * Method used to build the snapshot of a shapefile
+     * @param shapefile shapefile path
+     * @param columns attributes stored in the snapshot, every attribute of the shapefile when empty
+     * @return number of features written
+     * @throws IOException if the shapefile cannot be read or the snapshot cannot be written
+     */
+    public static int write(File shapefile, List<String> columns) throws IOException {
+        FileDataStore dataStore = FileDataStoreFinder.getDataStore(shapefile);
+        try {
+            List<String> stored = columns.isEmpty() ? attributesOf(dataStore.getSchema()) : columns;
+            return new SnapshotWriter().write(shapefile, dataStore.getFeatureSource(), stored);
+        } finally {
+            dataStore.dispose();
+        }
+    }
+
+    /**
+     * Method used to list the attributes of a layer, excluding the geometry
+     * @param schema layer schema
+     * @return attribute names
+     */
+    private static List<String> attributesOf(SimpleFeatureType schema) {
+        List<String> attributes = new ArrayList<>();
+        for (AttributeDescriptor descriptor : schema.getAttributeDescriptors()) {
+            if (!(descriptor instanceof GeometryDescriptor)) {
+                attributes.add(descriptor.getLocalName());
+            }
+        }
+        return attributes;
+    }
+
+    /**
+     * Method used to write the snapshot, the records are staged in a temporary file and the snapshot replaces
+     * the previous one only once it is complete
+     * @param shapefile shapefile path
+     * @param source layer to be stored
+     * @param columns attributes stored in the snapshot
+     * @return number of features written
+     * @throws IOException if the layer cannot be read or the snapshot cannot be written
+     */
+    private int write(File shapefile, SimpleFeatureSource source, List<String> columns) throws IOException {
+        File snapshot = snapshotOf(shapefile);
+        File records = File.createTempFile(snapshot.getName(), ".records", snapshot.getAbsoluteFile().getParentFile());
+        File partial = File.createTempFile(snapshot.getName(), ".partial", snapshot.getAbsoluteFile().getParentFile());
+        try {
+            writeRecords(source, columns, records);
+
+            try (DataOutputStream output =
+                    new DataOutputStream(new BufferedOutputStream(new FileOutputStream(partial), 1 << 20))) {
+                writeHeader(output, shapefile, source.getSchema(), columns);
+                writeTree(output);
+            }
+            try (FileChannel target = FileChannel.open(partial.toPath(), StandardOpenOption.APPEND);
+                    FileChannel recordChannel = FileChannel.open(records.toPath(), StandardOpenOption.READ)) {
+                long position = 0;
+                while (position < recordChannel.size()) {
+                    position += recordChannel.transferTo(position, recordChannel.size() - position, target);
+                }
+                target.force(true);
+            }
+            Files.move(partial.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return count;
+
+        } finally {
+            Files.deleteIfExists(records.toPath());
+            Files.deleteIfExists(partial.toPath());
+        }
+    }
+
+    /**
+     * Method used to write the geometry and the attributes of every feature, collecting their envelopes
+     * @param source layer to be stored
+     * @param columns attributes stored in the snapshot
+     * @param records staging file of the records
+     * @throws IOException if the layer cannot be read or the records cannot be written
+     */
+    private void writeRecords(SimpleFeatureSource source, List<String> columns, File records) throws IOException {
+        WKBWriter wkbWriter = new WKBWriter(2);
+        long offset = 0;
+        try (DataOutputStream output =
+                        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(records), 1 << 20));
+                SimpleFeatureIterator features = source.getFeatures().features()) {
+            while (features.hasNext()) {
+                SimpleFeature feature = features.next();
+                Geometry geometry = (Geometry) feature.getDefaultGeometry();
+                if (geometry == null || geometry.isEmpty()) {
+                    continue;
+                }
+                ensureCapacity();
+
+                Envelope envelope = geometry.getEnvelopeInternal();
+                boxes[4 * count] = envelope.getMinX();
+                boxes[4 * count + 1] = envelope.getMinY();
+                boxes[4 * count + 2] = envelope.getMaxX();
+                boxes[4 * count + 3] = envelope.getMaxY();
+                offsets[count] = offset;
+
+                byte[] wkb = wkbWriter.write(geometry);
+                output.writeInt(wkb.length);
+                output.write(wkb);
+                offset += 4 + wkb.length;
+                for (String column : columns) {
+                    Object value = feature.getAttribute(column);
+                    if (value == null) {
+                        output.writeInt(-1);
+                        offset += 4;
+                    } else {
+                        byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+                        output.writeInt(bytes.length);
+                        output.write(bytes);
+                        offset += 4 + bytes.length;
+                    }
+                }
+                count++;
+            }
+        }
+        offsets[count] = offset;
+    }
+
+    /**
+     * Method used to write the header identifying the snapshot and its source
+     * @param output snapshot stream
+     * @param shapefile shapefile path
+     * @param schema layer schema
+     * @param columns attributes stored in the snapshot
+     * @throws IOException if the snapshot cannot be written
+     */
+    private void writeHeader(DataOutputStream output, File shapefile, SimpleFeatureType schema, List<String> columns)
+            throws IOException {
+        File dbf = dbfOf(shapefile);
+        output.writeLong(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(PackedRTree.NODE_SIZE);
+        output.writeLong(shapefile.length());
+        output.writeLong(shapefile.lastModified());
+        output.writeLong(dbf.length());
+        output.writeLong(dbf.lastModified());
+        output.writeInt(count);
+        output.writeInt(PackedRTree.nodeCount(count));
+        output.writeInt(PackedRTree.levelCount(count));
+        writeString(output, schema.getTypeName());
+        writeString(output, toWkt(schema.getCoordinateReferenceSystem()));
+        output.writeInt(columns.size());
+        for (String column : columns) {
+            writeString(output, column);
+        }
+        while (output.size() % 8 != 0) {
+            output.writeByte(0);
+        }
+    }
+
+    /**
+     * Method used to build the packed R-tree of the features and write it
+     * @param output snapshot stream
+     * @throws IOException if the snapshot cannot be written
+     */
+    private void writeTree(DataOutputStream output) throws IOException {
+        PackedRTree tree = new PackedRTree(boxes, count);
+        for (long bound : tree.getLevelBounds()) {
+            output.writeLong(bound);
+        }
+        for (double value : tree.getBoxes()) {
+            output.writeDouble(value);
+        }
+        for (int i = 0; i <= count; i++) {
+            output.writeLong(offsets[i]);
+        }
+        for (int index : tree.getIndices()) {
+            output.writeInt(index);
+        }
+    }
+
+    /**
+     * Method used to format the reference system of the layer
+     * @param crs reference system, null if the layer does not declare one
+     * @return WKT of the reference system, empty if it is missing or cannot be formatted
+     */
+    private static String toWkt(CoordinateReferenceSystem crs) {
+        if (crs == null) {
+            return "";
+        }
+        try {
+            return crs.toWKT();
+        } catch (UnsupportedOperationException e) {
+            return "";
+        }
+    }
+
+    /**
+     * Method used to grow the envelope and offset arrays
+     */
+    private void ensureCapacity() {
+        if (count + 1 >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            boxes = Arrays.copyOf(boxes, offsets.length * 4);
+        }
+    }
+
+    /**
+     * Method used to write a string as length and UTF-8 bytes
+     * @param output snapshot stream
+     * @param value string to write
+     * @throws IOException if the snapshot cannot be written
+     */
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Method used to get a file next to the shapefile with another extension
+     * @param shapefile shapefile path
+     * @param extension extension of the file
+     * @return path of the file
+     */
+    private static File sibling(File shapefile, String extension) {
+        String name = shapefile.getName();
+        int dot = name.lastIndexOf('.');
+        String baseName = dot > 0 ? name.substring(0, dot) : name;
+        return new File(shapefile.getAbsoluteFile().getParentFile(), baseName + extension);
+    }
+}
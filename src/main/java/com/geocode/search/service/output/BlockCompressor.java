@@ -0,0 +1,90 @@
+package com.geocode.search.service.output;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+import lombok.Getter;
+
+/**
+ * Compresses blocks of output as independent gzip members on a pool of threads.
+ * Concatenated members form a valid gzip file, readable by gzip, zcat and GZIPInputStream.
+ */
+public class BlockCompressor {
+
+    private final int level;
+    private final ExecutorService executor;
+
+    @Getter
+    private final int threads;
+
+    /**
+     * Constructor
+     * @param level deflate compression level, from 1 (fastest) to 9 (smallest)
+     * @param threads number of threads compressing the blocks
+     */
+    public BlockCompressor(int level, int threads) {
+        this.level = level;
+        this.threads = threads;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "output-compressor-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Method used to compress a block in the background
+     * @param block bytes to compress, not modified afterwards by the caller
+     * @param length number of bytes of the block
+     * @return gzip member holding the block
+     */
+    public Future<byte[]> submit(byte[] block, int length) {
+        return executor.submit(() -> compress(block, length));
+    }
+
+    /**
+     * Method used to stop the compression threads
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Method used to compress a block as a gzip member
+     * @param block bytes to compress
+     * @param length number of bytes of the block
+     * @return gzip member holding the block
+     */
+    private byte[] compress(byte[] block, int length) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(length / 4 + 64);
+        try (GZIPOutputStream gzip = new LeveledGzipOutputStream(output, level)) {
+            gzip.write(block, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Gzip stream with a configurable compression level
+     */
+    private static class LeveledGzipOutputStream extends GZIPOutputStream {
+
+        /**
+         * Constructor
+         * @param output stream receiving the compressed bytes
+         * @param level deflate compression level
+         * @throws IOException if the gzip header cannot be written
+         */
+        LeveledGzipOutputStream(ByteArrayOutputStream output, int level) throws IOException {
+            super(output, 1 << 16);
+            def.setLevel(level);
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.geocode.search.service.output;
 
 import java.sql.ResultSet;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -14,6 +17,7 @@ import org.opengis.feature.simple.SimpleFeature;
 @AllArgsConstructor
 public class IntersectResult {
 
-    private HashSet<SimpleFeature> shapeElements = new HashSet<>();
+    private HashSet<SimpleFeature> shapeElements = new LinkedHashSet<>();
+    private ArrayList<List<SimpleFeature>> layerElements = new ArrayList<>();
     private ResultSet dbElements;
 }
@@ -0,0 +1,229 @@
+package com.geocode.search.service.output;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class OutputWriter implements Closeable {
+
+    private final FileChannel channel;
+    private final long flushInterval;
+    private final BlockCompressor compressor;
+    private final ArrayDeque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+    private ByteBuffer buffer;
+    private long lastFlush;
+
+    /**
+     * Constructor
+     * @param path output file path, truncated if it already exists
+     * @param bufferSize bytes collected before writing to the file
+     * @param flushInterval milliseconds after which buffered bytes are written anyway
+     * @throws IOException if the file cannot be opened
+     */
+    public OutputWriter(String path, int bufferSize, long flushInterval) throws IOException {
+        this(path, bufferSize, flushInterval, 0);
+    }
+
+    /**
+     * Constructor
+     * @param path output file path
+     * @param bufferSize bytes collected before writing to the file
+     * @param flushInterval milliseconds after which buffered bytes are written anyway
+     * @param length bytes of an existing file kept, the rest is truncated and writing continues after them
+     * @throws IOException if the file cannot be opened
+     */
+    public OutputWriter(String path, int bufferSize, long flushInterval, long length) throws IOException {
+        this(path, bufferSize, flushInterval, length, null);
+    }
+
+    /**
+     * Constructor
+     * @param path output file path
+     * @param bufferSize bytes collected before writing to the file, the size of a compressed block
+     * @param flushInterval milliseconds after which buffered bytes are written anyway
+     * @param length bytes of an existing file kept, the rest is truncated and writing continues after them
+     * @param compressor compressor of the buffered blocks, null to write them as they are
+     * @throws IOException if the file cannot be opened
+     */
+    // spotless:off
+	public OutputWriter(String path, int bufferSize, long flushInterval, long length, BlockCompressor compressor) throws IOException {
+		this.channel = FileChannel.open(Path.of(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		this.channel.truncate(length);
+		this.channel.position(length);
+		this.compressor = compressor;
+		this.buffer = compressor != null ? ByteBuffer.allocate(bufferSize) : ByteBuffer.allocateDirect(bufferSize);
+		this.flushInterval = TimeUnit.MILLISECONDS.toNanos(flushInterval);
+		this.lastFlush = System.nanoTime();
+	}
+	// spotless:on
+
+    /**
+     * Method used to write text encoded in UTF-8
+     * @param text text to write
+     * @throws IOException if the file cannot be written
+     */
+    public void write(String text) throws IOException {
+        write(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Method used to write bytes, flushing when the buffer is full or, without compression, when the flush
+     * interval has elapsed
+     * @param bytes bytes to write
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void write(byte[] bytes) throws IOException {
+        if (buffer.position() == 0 && bytes.length >= buffer.capacity()) {
+            writeBlock(bytes, bytes.length);
+        } else {
+            int offset = 0;
+            while (offset < bytes.length) {
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+                if (!buffer.hasRemaining()) {
+                    flushBuffer();
+                }
+            }
+        }
+        if (compressor == null && System.nanoTime() - lastFlush >= flushInterval) {
+            flushBuffer();
+        }
+    }
+
+    /**
+     * Method used to write the buffered bytes to the file.
+     * With compression the bytes stay in the current block, which is written when full, synced or closed,
+     * so the blocks are not cut into small gzip members.
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        if (compressor == null) {
+            flushBuffer();
+        }
+    }
+
+    /**
+     * Method used to write the buffered bytes and force them to the storage device
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void sync() throws IOException {
+        flushBuffer();
+        writeCompressedBlocks(0);
+        channel.force(true);
+    }
+
+    /**
+     * Method used to get the length of the output, including the buffered bytes.
+     * With compression the blocks still buffered or being compressed are not counted, so the length is exact
+     * only after {@link #sync()}.
+     * @return bytes written to the output
+     * @throws IOException if the position of the file cannot be read
+     */
+    public synchronized long length() throws IOException {
+        return compressor != null ? channel.position() : channel.position() + buffer.position();
+    }
+
+    /**
+     * Method used to write the buffered bytes, force them to the storage device and close the file
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            try {
+                sync();
+            } finally {
+                channel.close();
+                if (compressor != null) {
+                    compressor.shutdown();
+                }
+            }
+        }
+    }
+
+    /**
+     * Method used to empty the buffer into the file
+     * @throws IOException if the file cannot be written
+     */
+    private void flushBuffer() throws IOException {
+        if (compressor != null) {
+            if (buffer.position() > 0) {
+                writeBlock(buffer.array(), buffer.position());
+                buffer = ByteBuffer.allocate(buffer.capacity());
+            }
+        } else {
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+        lastFlush = System.nanoTime();
+    }
+
+    /**
+     * Method used to write a block, handing it to the compressor if compression is enabled.
+     * Compressed blocks are written in order as they complete, and the caller waits only when
+     * more blocks than twice the compression threads are in flight.
+     * @param block bytes to write, not modified afterwards
+     * @param length number of bytes of the block
+     * @throws IOException if the file cannot be written
+     */
+    private void writeBlock(byte[] block, int length) throws IOException {
+        if (compressor == null) {
+            writeFully(ByteBuffer.wrap(block, 0, length));
+            return;
+        }
+        pendingBlocks.add(compressor.submit(block, length));
+        while (!pendingBlocks.isEmpty() && pendingBlocks.peek().isDone()) {
+            writeFully(ByteBuffer.wrap(completed(pendingBlocks.poll())));
+        }
+        writeCompressedBlocks(compressor.getThreads() * 2);
+    }
+
+    /**
+     * Method used to write the compressed blocks in order, waiting for them to complete
+     * @param maxPending number of blocks left in flight
+     * @throws IOException if a block cannot be compressed or the file cannot be written
+     */
+    private void writeCompressedBlocks(int maxPending) throws IOException {
+        while (pendingBlocks.size() > maxPending) {
+            writeFully(ByteBuffer.wrap(completed(pendingBlocks.poll())));
+        }
+    }
+
+    /**
+     * Method used to wait for a compressed block
+     * @param block block being compressed
+     * @return gzip member holding the block
+     * @throws IOException if the block cannot be compressed
+     */
+    private static byte[] completed(Future<byte[]> block) throws IOException {
+        try {
+            return block.get();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Method used to write all the remaining bytes of a buffer
+     * @param source bytes to write
+     * @throws IOException if the file cannot be written
+     */
+    private void writeFully(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.geocode.search.service.pipeline;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+@AllArgsConstructor
+public class Chunk {
+
+    private long sequence;
+    private long start;
+    private long end;
+    private List<String> lines;
+    private int records;
+    private byte[] output;
+
+    /**
+     * Method used to create a chunk of lines already read
+     * @param sequence position of the chunk in the input file
+     * @param lines records of the input file
+     * @param end first byte of the input file after the lines
+     * @return chunk to be processed
+     */
+    public static Chunk ofLines(long sequence, List<String> lines, long end) {
+        return new Chunk(sequence, 0, end, lines, lines.size(), null);
+    }
+
+    /**
+     * Method used to create a chunk of a byte range still to be read
+     * @param sequence position of the chunk in the input file
+     * @param start first byte of the range
+     * @param end first byte after the range
+     * @return chunk to be processed
+     */
+    public static Chunk ofRange(long sequence, long start, long end) {
+        return new Chunk(sequence, start, end, null, 0, null);
+    }
+}
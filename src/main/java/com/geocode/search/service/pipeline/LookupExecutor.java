@@ -0,0 +1,104 @@
+package com.geocode.search.service.pipeline;
+
+import static com.geocode.search.message.Alert.*;
+
+import com.geocode.search.logging.Logger;
+import com.geocode.search.service.Process;
+import io.sentry.Sentry;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+public class LookupExecutor extends Logger {
+
+    private final Process process;
+    private final ExecutorService executor;
+    private final Semaphore concurrency;
+
+    /**
+     * Constructor
+     * @param process process used to intersect the records
+     * @param maxConcurrency maximum number of lookups in flight
+     */
+    public LookupExecutor(Process process, int maxConcurrency) {
+        this.process = process;
+        this.executor = createExecutor();
+        this.concurrency = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * Method used to perform intersect on a chunk, running every lookup on its own thread
+     * @param lines records of the input file to be processed
+     * @return output records encoded in UTF-8, in the order of the input records
+     * @throws InterruptedException if the thread is interrupted while waiting for the lookups
+     */
+    public byte[] processChunk(List<String> lines) throws InterruptedException {
+        int lookupSize = process.getBatchSize();
+        List<Future<String>> lookups = new ArrayList<>(lines.size() / lookupSize + 1);
+        for (int i = 0; i < lines.size(); i += lookupSize) {
+            List<String> records = lines.subList(i, Math.min(i + lookupSize, lines.size()));
+            concurrency.acquire();
+            try {
+                lookups.add(executor.submit(() -> lookup(records)));
+            } catch (RuntimeException e) {
+                concurrency.release();
+                throw e;
+            }
+        }
+
+        StringBuilder output = new StringBuilder(lines.size() * 128);
+        try {
+            for (Future<String> lookup : lookups) {
+                output.append(lookup.get());
+            }
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            printError(ERROR_VIRTUAL_THREAD_LOOKUP.description, e.getMessage());
+            Sentry.captureException(e);
+            System.exit(1);
+        }
+        return output.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Method used to stop the lookup threads
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Method used to perform a single lookup
+     * @param records records sent with a single lookup
+     * @return output records of the lookup
+     */
+    private String lookup(List<String> records) {
+        try {
+            StringBuilder output = new StringBuilder(records.size() * 128);
+            process.processLines(records, output);
+            return output.toString();
+        } finally {
+            concurrency.release();
+        }
+    }
+
+    /**
+     * Method used to create a thread per task executor, using virtual threads when the runtime supports them
+     * @return executor service
+     */
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService)
+                    Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            printInfo("Virtual threads are not available on Java " + Runtime.version().feature()
+                    + ", platform threads will be used");
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
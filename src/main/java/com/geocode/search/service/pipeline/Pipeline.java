@@ -0,0 +1,321 @@
+package com.geocode.search.service.pipeline;
+
+import static com.geocode.search.message.Alert.*;
+
+import com.geocode.search.checkpoint.CheckpointWriter;
+import com.geocode.search.cli.Parameters;
+import com.geocode.search.logging.Logger;
+import com.geocode.search.metrics.Metrics;
+import com.geocode.search.metrics.Stage;
+import com.geocode.search.service.Process;
+import com.geocode.search.service.input.LineReader;
+import com.geocode.search.service.input.MappedInput;
+import io.sentry.Sentry;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
+public class Pipeline extends Logger {
+
+    private static final Chunk END = Chunk.ofLines(-1, List.of(), 0);
+
+    private final Parameters parameters;
+    private final Process process;
+    private final int workers;
+    private final BlockingQueue<Chunk> inputQueue;
+    private final BlockingQueue<Chunk> outputQueue;
+    private final Semaphore inFlight;
+    private final LookupExecutor lookupExecutor;
+    private final CheckpointWriter checkpointWriter;
+    private MappedInput mappedInput;
+
+    /**
+     * Constructor
+     * @param parameters configuration parameters
+     * @param process process used by the workers to intersect the records
+     */
+    public Pipeline(Parameters parameters, Process process) {
+        this.parameters = parameters;
+        this.process = process;
+        this.workers = Math.max(1, parameters.getThreads());
+
+        int capacity = Math.max(parameters.getProcessingSettings().getQueueSize(), workers * 2);
+        this.inputQueue = new ArrayBlockingQueue<>(capacity + workers);
+        this.outputQueue = new ArrayBlockingQueue<>(capacity + workers);
+        this.inFlight = new Semaphore(capacity);
+
+        if (parameters.getProcessingSettings().getExecutor().equals("virtual")) {
+            this.lookupExecutor = new LookupExecutor(process, parameters.getProcessingSettings().getMaxConcurrency());
+        } else {
+            this.lookupExecutor = null;
+        }
+
+        if (parameters.getCheckpointSettings().isEnabled()) {
+            this.checkpointWriter = new CheckpointWriter(
+                    parameters.getCheckpointSettings(),
+                    parameters.getFileSettings().getInputPath(),
+                    parameters.getFileSettings().getOutputFile());
+        } else {
+            this.checkpointWriter = null;
+        }
+    }
+
+    /**
+     * Method used to run the reader, the workers and the writer until the input file is consumed
+     */
+    public void run() {
+        if (parameters.getProcessingSettings().getInputMode().equals("mapped")) {
+            if (parameters.getFileSettings().getInputFile().isCompressed()) {
+                printInfo("The compressed input file cannot be memory mapped, it is read in stream mode");
+            } else {
+                mappedInput = openMappedInput();
+            }
+        }
+
+        ArrayList<Thread> threads = new ArrayList<>();
+        threads.add(new Thread(this::readInput, "pipeline-reader"));
+        for (int i = 0; i < workers; i++) {
+            threads.add(new Thread(this::processChunks, "pipeline-worker-" + i));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        writeOutput();
+        waitThreads(threads);
+        closeMappedInput();
+        if (lookupExecutor != null) {
+            lookupExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Method used to read the input file and split it into chunks
+     */
+    private void readInput() {
+        if (mappedInput != null) {
+            readRanges();
+            return;
+        }
+        int chunkSize = parameters.getProcessingSettings().getChunkSize();
+        long sequence = 0;
+        try {
+            String line;
+            LineReader inputFile = parameters.getFileSettings().getInputFile();
+            List<String> lines = new ArrayList<>(chunkSize);
+            long start = Metrics.now();
+            while ((line = inputFile.readLine()) != null) {
+                lines.add(line);
+                if (lines.size() == chunkSize) {
+                    Metrics.record(Stage.READ, start);
+                    publish(Chunk.ofLines(sequence++, lines, inputFile.getPosition()));
+                    lines = new ArrayList<>(chunkSize);
+                    start = Metrics.now();
+                }
+            }
+            if (!lines.isEmpty()) {
+                Metrics.record(Stage.READ, start);
+                publish(Chunk.ofLines(sequence, lines, inputFile.getPosition()));
+            }
+        } catch (IOException e) {
+            printError(ERROR_READING_CSV.description, e.getMessage());
+            Sentry.captureException(e);
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (int i = 0; i < workers; i++) {
+                putQuietly(inputQueue, END);
+            }
+        }
+    }
+
+    /**
+     * Method used to split the mapped input file into ranges aligned on line boundaries
+     */
+    private void readRanges() {
+        long rangeSize = parameters.getProcessingSettings().getRangeSize();
+        long sequence = 0;
+        try {
+            long start = mappedInput.getStart();
+            while (start < mappedInput.getSize()) {
+                long end = mappedInput.rangeEnd(start, rangeSize);
+                publish(Chunk.ofRange(sequence++, start, end));
+                start = end;
+            }
+        } catch (IOException e) {
+            printError(ERROR_READING_CSV.description, e.getMessage());
+            Sentry.captureException(e);
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (int i = 0; i < workers; i++) {
+                putQuietly(inputQueue, END);
+            }
+        }
+    }
+
+    /**
+     * Method used to hand a chunk to the workers, waiting while too many chunks are in memory
+     * @param chunk chunk read from the input file
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private void publish(Chunk chunk) throws InterruptedException {
+        inFlight.acquire();
+        inputQueue.put(chunk);
+    }
+
+    /**
+     * Method used by the workers to intersect the chunks
+     */
+    private void processChunks() {
+        try {
+            Chunk chunk;
+            while ((chunk = inputQueue.take()) != END) {
+                if (chunk.getLines() == null) {
+                    long start = Metrics.now();
+                    chunk.setLines(mappedInput.readLines(chunk.getStart(), chunk.getEnd()));
+                    chunk.setRecords(chunk.getLines().size());
+                    Metrics.record(Stage.READ, start);
+                }
+                if (lookupExecutor != null) {
+                    chunk.setOutput(lookupExecutor.processChunk(chunk.getLines()));
+                } else {
+                    chunk.setOutput(process.processChunk(chunk.getLines()));
+                }
+                chunk.setLines(null);
+                outputQueue.put(chunk);
+            }
+        } catch (IOException e) {
+            printError(ERROR_READING_CSV.description, e.getMessage());
+            Sentry.captureException(e);
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            putQuietly(outputQueue, END);
+        }
+    }
+
+    /**
+     * Method used to write the processed chunks, restoring the input order if required.
+     * Checkpoints always restore it, since the committed input must be a prefix of the file.
+     */
+    private void writeOutput() {
+        boolean preserveOrder = parameters.getProcessingSettings().isPreserveOrder() || checkpointWriter != null;
+        PriorityQueue<Chunk> pending = new PriorityQueue<>(Comparator.comparingLong(Chunk::getSequence));
+        long nextSequence = 0;
+        int finishedWorkers = 0;
+
+        try {
+            while (finishedWorkers < workers) {
+                Chunk chunk = outputQueue.take();
+                if (chunk == END) {
+                    finishedWorkers++;
+                } else if (!preserveOrder) {
+                    write(chunk);
+                } else {
+                    pending.add(chunk);
+                    while (!pending.isEmpty() && pending.peek().getSequence() == nextSequence) {
+                        write(pending.poll());
+                        nextSequence++;
+                    }
+                }
+            }
+            while (!pending.isEmpty()) {
+                write(pending.poll());
+            }
+            if (checkpointWriter != null) {
+                checkpointWriter.finish();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            printError(ERROR_WRITE_FILE_OUTPUT.description, e.getMessage());
+            Sentry.captureException(e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Method used to write a chunk to the output file
+     * @param chunk processed chunk
+     * @throws IOException if the output file cannot be written
+     */
+    private void write(Chunk chunk) throws IOException {
+        long start = Metrics.now();
+        parameters.getFileSettings().getOutputFile().write(chunk.getOutput());
+        Metrics.record(Stage.WRITE, start);
+        if (checkpointWriter != null) {
+            checkpointWriter.commit(chunk.getEnd(), chunk.getRecords());
+        }
+        inFlight.release();
+    }
+
+    /**
+     * Method used to memory map the input file
+     * @return mapped input file
+     */
+    // spotless:off
+	private MappedInput openMappedInput() {
+		try {
+			long offset = parameters.getCheckpointSettings().isResume() ? parameters.getCheckpointSettings().getResumeFrom().getInputOffset() : 0;
+			return new MappedInput(parameters.getFileSettings().getInputPath(), parameters.getFileSettings().getHeader().equalsIgnoreCase("S"), offset);
+		} catch (IOException e) {
+			printError(INPUT_PATH_INVALID.description, e.getMessage());
+			Sentry.captureException(e);
+			System.exit(1);
+			return null;
+		}
+	}
+	// spotless:on
+
+    /**
+     * Method used to release the mapped input file
+     */
+    private void closeMappedInput() {
+        try {
+            if (mappedInput != null) {
+                mappedInput.close();
+            }
+        } catch (IOException e) {
+            printError(ERROR_CLOSING_CONNECTIONS.description, e.getMessage());
+            Sentry.captureException(e);
+        }
+    }
+
+    /**
+     * Method used to put the end marker in a queue
+     * @param queue queue to be closed
+     * @param chunk end marker
+     */
+    private static void putQuietly(BlockingQueue<Chunk> queue, Chunk chunk) {
+        try {
+            queue.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Method used to wait for all threads to complete processing
+     * @param threads active threads list
+     */
+    private static void waitThreads(ArrayList<Thread> threads) {
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (Exception e) {
+            printError(ERROR_WAIT_ALL_THREAD.description, e.getMessage());
+            Sentry.captureException(e);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.geocode.search.settings;
+
+import com.geocode.search.service.cache.ResultCache;
+import com.geocode.search.yaml.YamlStructure;
+import lombok.*;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheSettings {
+
+    private boolean enabled = false;
+    private int precision = 6;
+    private int size = 100000;
+    private String policy = "lru";
+    private ResultCache resultCache;
+
+    /**
+     * Method used to read yaml configuration parameters
+     * @param yaml configuration properties
+     * @param threads number of threads sharing the cache
+     */
+    public void readConfigFromYaml(YamlStructure yaml, int threads) {
+        YamlStructure.CacheConf cacheConf = yaml.getCache();
+        if (cacheConf == null) {
+            return;
+        }
+
+        if (cacheConf.getEnabled() != null) {
+            enabled = cacheConf.getEnabled().equalsIgnoreCase("S");
+        }
+        if (cacheConf.getPrecision() != null && cacheConf.getPrecision() >= 0) {
+            precision = cacheConf.getPrecision();
+        }
+        if (cacheConf.getSize() > 0) {
+            size = cacheConf.getSize();
+        }
+        if (cacheConf.getPolicy() != null && cacheConf.getPolicy().equalsIgnoreCase("fifo")) {
+            policy = "fifo";
+        }
+        if (enabled) {
+            resultCache = new ResultCache(precision, size, policy, Math.max(16, threads * 4));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.geocode.search.settings;
+
+import static com.geocode.search.message.Alert.*;
+
+import com.geocode.search.checkpoint.Checkpoint;
+import com.geocode.search.logging.Logger;
+import com.geocode.search.yaml.YamlStructure;
+import io.sentry.Sentry;
+import java.io.File;
+import lombok.*;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckpointSettings extends Logger {
+
+    private boolean enabled = false;
+    private long rows = 1000000;
+    private long interval = 60;
+    private String path;
+    private Checkpoint resumeFrom;
+
+    /**
+     * Method used to read yaml configuration parameters and, when resuming, the last checkpoint
+     * @param yaml configuration properties
+     * @param resume boolean value indicating whether the run continues from the last checkpoint
+     * @return boolean value indicating whether the parameter is correct
+     */
+    public boolean readConfigFromYaml(YamlStructure yaml, boolean resume) {
+        path = yaml.getOutputFile() + ".checkpoint";
+
+        YamlStructure.CheckpointConf checkpointConf = yaml.getCheckpoint();
+        if (checkpointConf != null) {
+            if (checkpointConf.getEnabled() != null) {
+                enabled = checkpointConf.getEnabled().equalsIgnoreCase("S");
+            }
+            if (checkpointConf.getRows() > 0) {
+                rows = checkpointConf.getRows();
+            }
+            if (checkpointConf.getInterval() > 0) {
+                interval = checkpointConf.getInterval();
+            }
+            if (checkpointConf.getPath() != null && !checkpointConf.getPath().isEmpty()) {
+                path = checkpointConf.getPath();
+            }
+        }
+
+        if (resume) {
+            enabled = true;
+            return readCheckpoint(yaml);
+        }
+        return true;
+    }
+
+    /**
+     * Method used to read the last checkpoint and check that it refers to the configured files
+     * @param yaml configuration properties
+     * @return boolean value indicating whether the run can be resumed
+     */
+    // spotless:off
+	private boolean readCheckpoint(YamlStructure yaml) {
+		try {
+			Checkpoint checkpoint = Checkpoint.read(new File(path));
+			if (!checkpoint.matches(new File(yaml.getInputFile()), new File(yaml.getOutputFile()))) {
+				printError(CHECKPOINT_INVALID.description, path);
+				return false;
+			}
+			resumeFrom = checkpoint;
+			return true;
+		} catch (Exception e) {
+			printError(ERROR_READ_CHECKPOINT.description, e.getMessage());
+			Sentry.captureException(e);
+			return false;
+		}
+	}
+	// spotless:on
+
+    /**
+     * Method used to check whether the run continues from a checkpoint
+     * @return boolean value indicating whether a checkpoint was loaded
+     */
+    public boolean isResume() {
+        return resumeFrom != null;
+    }
+}
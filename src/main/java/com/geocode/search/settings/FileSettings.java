@@ -2,13 +2,14 @@ package com.geocode.search.settings;
 
 import static com.geocode.search.message.Alert.*;
 
+import com.geocode.search.checkpoint.Checkpoint;
 import com.geocode.search.logging.Logger;
+import com.geocode.search.service.input.CoordinateScanner;
+import com.geocode.search.service.input.LineReader;
+import com.geocode.search.service.output.BlockCompressor;
+import com.geocode.search.service.output.OutputWriter;
 import com.geocode.search.yaml.YamlStructure;
 import io.sentry.Sentry;
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.nio.charset.StandardCharsets;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -20,43 +21,64 @@ import lombok.Setter;
 @AllArgsConstructor
 public class FileSettings extends Logger {
 
-    private BufferedReader inputFile;
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    private static final int DEFAULT_COORDINATE_TYPE = 4326;
+    private static final long DEFAULT_FLUSH_INTERVAL = 1000;
+    private static final int DEFAULT_BLOCK_SIZE = 4 << 20;
+    private static final int DEFAULT_COMPRESSION_LEVEL = 6;
+
+    private LineReader inputFile;
+    private String inputPath;
     private String delimiter;
     private String header;
     private int columnX;
     private int columnY;
     private int coordinateType;
-    private FileWriter outputFile;
+    private OutputWriter outputFile;
+    private CoordinateScanner coordinateScanner;
 
     /**
      * Method used to read yaml configuration parameters
      * @param yaml configuration properties
+     * @param resumeFrom checkpoint from which the files are resumed, null to process the whole input file
      * @return boolean value indicating whether the parameter is correct
      */
-    public boolean readConfigFromYaml(YamlStructure yaml) {
-        inputFile = getInputFile(yaml);
-        outputFile = getOutputFile(yaml);
+    public boolean readConfigFromYaml(YamlStructure yaml, Checkpoint resumeFrom) {
+        inputFile = getInputFile(yaml, resumeFrom != null ? resumeFrom.getInputOffset() : 0);
+        inputPath = yaml.getInputFile();
+        outputFile = getOutputFile(yaml, resumeFrom != null ? resumeFrom.getOutputLength() : 0);
 
         boolean correctSettings = false;
 
         if (inputFile != null && outputFile != null) {
-            if (checkDelimiter(yaml) && checkHeader(yaml)) {
-                getCoordinatesInfo(yaml);
-                correctSettings = true;
-            }
+            correctSettings = readFormatFromYaml(yaml) && checkHeader(yaml);
         }
 
         return correctSettings;
     }
 
+    /**
+     * Method used to read the format of the records, without opening the input and output files
+     * @param yaml configuration properties
+     * @return boolean value indicating whether the parameter is correct
+     */
+    public boolean readFormatFromYaml(YamlStructure yaml) {
+        if (checkDelimiter(yaml)) {
+            getCoordinatesInfo(yaml);
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Method used to access the input file
      * @param yaml configuration properties
+     * @param offset byte from which the file is read
      * @return file to read
      */
-    private BufferedReader getInputFile(YamlStructure yaml) {
+    private LineReader getInputFile(YamlStructure yaml, long offset) {
         try {
-            return new BufferedReader(new FileReader(yaml.getInputFile(), StandardCharsets.UTF_8));
+            return new LineReader(yaml.getInputFile(), offset);
         } catch (Exception e) {
             printError(INPUT_PATH_INVALID.description);
             Sentry.captureException(e);
@@ -67,11 +89,27 @@ public class FileSettings extends Logger {
     /**
      * Method used to access the output file
      * @param yaml configuration properties
+     * @param length bytes of the existing file kept when resuming, 0 to truncate it
      * @return file to write to
      */
-    private FileWriter getOutputFile(YamlStructure yaml) {
+    private OutputWriter getOutputFile(YamlStructure yaml, long length) {
+        int bufferSize = DEFAULT_BUFFER_SIZE;
+        long flushInterval = DEFAULT_FLUSH_INTERVAL;
+        if (yaml.getOutput() != null && yaml.getOutput().getBufferSize() > 0) {
+            bufferSize = yaml.getOutput().getBufferSize();
+        }
+        if (yaml.getOutput() != null && yaml.getOutput().getFlushInterval() > 0) {
+            flushInterval = yaml.getOutput().getFlushInterval();
+        }
+        BlockCompressor compressor = getCompressor(yaml.getOutput());
+        if (compressor != null) {
+            bufferSize = DEFAULT_BLOCK_SIZE;
+            if (yaml.getOutput().getBlockSize() > 0) {
+                bufferSize = yaml.getOutput().getBlockSize();
+            }
+        }
         try {
-            return new FileWriter(yaml.getOutputFile(), StandardCharsets.UTF_8);
+            return new OutputWriter(yaml.getOutputFile(), bufferSize, flushInterval, length, compressor);
         } catch (Exception e) {
             printError(OUTPUT_FILE_INVALID.description);
             Sentry.captureException(e);
@@ -79,6 +117,28 @@ public class FileSettings extends Logger {
         }
     }
 
+    /**
+     * Method used to create the compressor of the output blocks
+     * @param outputConf output properties
+     * @return gzip compressor, null if the output is not compressed
+     */
+    // spotless:off
+	private static BlockCompressor getCompressor(YamlStructure.OutputConf outputConf) {
+		if (outputConf == null || outputConf.getCompression() == null || !outputConf.getCompression().equalsIgnoreCase("gzip")) {
+			return null;
+		}
+		int level = DEFAULT_COMPRESSION_LEVEL;
+		if (outputConf.getCompressionLevel() >= 1 && outputConf.getCompressionLevel() <= 9) {
+			level = outputConf.getCompressionLevel();
+		}
+		int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+		if (outputConf.getCompressionThreads() > 0) {
+			threads = outputConf.getCompressionThreads();
+		}
+		return new BlockCompressor(level, threads);
+	}
+	// spotless:on
+
     /**
      * Method used to check if the delimiter is valid
      * @param yaml configuration properties
@@ -121,6 +181,7 @@ public class FileSettings extends Logger {
     private void getCoordinatesInfo(YamlStructure yaml) {
         columnX = yaml.getColumnX();
         columnY = yaml.getColumnY();
-        coordinateType = yaml.getCoordinateType();
+        coordinateType = yaml.getCoordinateType() > 0 ? yaml.getCoordinateType() : DEFAULT_COORDINATE_TYPE;
+        coordinateScanner = new CoordinateScanner(delimiter, columnX, columnY);
     }
 }
@@ -4,6 +4,8 @@ import static com.geocode.search.message.Alert.*;
 
 import com.geocode.search.connection.Database;
 import com.geocode.search.logging.Logger;
+import com.geocode.search.service.intersect.shapefile.GridIndex;
+import com.geocode.search.service.intersect.shapefile.LayerFormat;
 import com.geocode.search.yaml.YamlStructure;
 import java.io.File;
 import java.util.ArrayList;
@@ -22,6 +24,7 @@ public class IntersectSettings extends Logger {
     private String intersectType;
     private ArrayList<String> intersectData = new ArrayList<>();
     private File shapefilePath;
+    private ArrayList<ShapefileLayer> shapefileLayers = new ArrayList<>();
     private Database databaseConnection;
 
     /**
@@ -35,7 +38,7 @@ public class IntersectSettings extends Logger {
         if (checkIntersectType(yaml) && checkIntersectData(yaml)) {
             correctSettings = switch (intersectType) {
                 case "shapefile" -> checkShapefilePath(yaml);
-                case "database" -> checkDatabaseConnection(yaml);
+                case "database", "bulk" -> checkDatabaseConnection(yaml);
                 default -> false;};
         }
         return correctSettings;
@@ -50,7 +53,7 @@ public class IntersectSettings extends Logger {
 	private boolean checkIntersectType(YamlStructure yaml) {
 		YamlStructure.IntersectConf intersectConf = yaml.getIntersect();
 
-		if (intersectConf.getType().equals("shapefile") || intersectConf.getType().equals("database")) {
+		if (intersectConf.getType().equals("shapefile") || intersectConf.getType().equals("database") || intersectConf.getType().equals("bulk")) {
 			intersectType = intersectConf.getType();
 			return true;
 		} else {
@@ -71,6 +74,10 @@ public class IntersectSettings extends Logger {
         if (intersectConf.getData() != null && !intersectConf.getData().isEmpty()) {
             Collections.addAll(intersectData, intersectConf.getData().split(","));
             return true;
+        } else if (intersectType.equals("shapefile")
+                && intersectConf.getShapefile() != null
+                && intersectConf.getShapefile().getLayers() != null) {
+            return true;
         } else {
             printError(INTERSECT_DATA_INVALID.description);
             return false;
@@ -78,27 +85,80 @@ public class IntersectSettings extends Logger {
     }
 
     /**
-     * Method used to check if the shapefile path is valid
+     * Method used to check if the shapefile layers are valid, a single path or a list of layers each with its own columns
      * @param yaml configuration properties
      * @return boolean value indicating whether the parameter is correct
      */
-    private boolean checkShapefilePath(YamlStructure yaml) {
-        YamlStructure.ShapefileConf shapefileConf = yaml.getIntersect().getShapefile();
-
-        if (shapefileConf.getPath() != null && !shapefileConf.getPath().isEmpty()) {
-            shapefilePath = new File(shapefileConf.getPath());
-
-            if (shapefilePath.exists() && !shapefilePath.isDirectory()) {
-                return true;
-            } else {
-                printError(SHAPEFILE_PATH_INVALID.description);
-                return false;
-            }
-        } else {
-            printError(SHAPEFILE_PATH_INVALID.description);
-            return false;
-        }
-    }
+    // spotless:off
+	private boolean checkShapefilePath(YamlStructure yaml) {
+		YamlStructure.ShapefileConf shapefileConf = yaml.getIntersect().getShapefile();
+		if (shapefileConf == null) {
+			printError(SHAPEFILE_PATH_INVALID.description);
+			return false;
+		}
+
+		if (shapefileConf.getLayers() == null || shapefileConf.getLayers().isEmpty()) {
+			ShapefileLayer layer = checkShapefileLayer(shapefileConf.getPath(), null, shapefileConf.getGridResolution(), shapefileConf.getSnapshot(), shapefileConf.getLayer());
+			if (layer == null) {
+				return false;
+			}
+			shapefileLayers.add(layer);
+
+		} else {
+			ArrayList<String> layersData = new ArrayList<>();
+			for (YamlStructure.LayerConf layerConf : shapefileConf.getLayers()) {
+				int gridResolution = layerConf.getGridResolution() > 0 ? layerConf.getGridResolution() : shapefileConf.getGridResolution();
+				String snapshot = layerConf.getSnapshot() != null ? layerConf.getSnapshot() : shapefileConf.getSnapshot();
+				ShapefileLayer layer = checkShapefileLayer(layerConf.getPath(), layerConf.getData(), gridResolution, snapshot, layerConf.getLayer());
+				if (layer == null) {
+					return false;
+				}
+				shapefileLayers.add(layer);
+				layersData.addAll(layer.getData());
+			}
+			intersectData = layersData;
+		}
+		shapefilePath = shapefileLayers.get(0).getPath();
+		return true;
+	}
+	// spotless:on
+
+    /**
+     * Method used to check a shapefile layer
+     * @param path path to the shapefile
+     * @param data columns extracted from the layer, the intersect data when missing
+     * @param gridResolution number of cells on each side of the acceleration grid, at most GridIndex.MAX_RESOLUTION
+     * @param snapshot indicates whether the index snapshot is created when missing (S/N)
+     * @param layerName table of a GeoPackage holding the layer, null for the first one
+     * @return layer, null if the parameters are not valid
+     */
+    // spotless:off
+	private ShapefileLayer checkShapefileLayer(String path, String data, int gridResolution, String snapshot, String layerName) {
+		if (path == null || path.isEmpty() || !new File(path).exists() || new File(path).isDirectory() || LayerFormat.of(new File(path)) == null) {
+			printError(SHAPEFILE_PATH_INVALID.description);
+			return null;
+		}
+
+		ShapefileLayer layer = new ShapefileLayer();
+		layer.setPath(new File(path));
+		if (data != null && !data.isEmpty()) {
+			Collections.addAll(layer.getData(), data.split(","));
+		} else if (!intersectData.isEmpty()) {
+			layer.getData().addAll(intersectData);
+		} else {
+			printError(INTERSECT_DATA_INVALID.description);
+			return null;
+		}
+		if (gridResolution > GridIndex.MAX_RESOLUTION) {
+			printError(GRID_RESOLUTION_INVALID.description);
+			return null;
+		}
+		layer.setGridResolution(Math.max(0, gridResolution));
+		layer.setSnapshot(snapshot != null && snapshot.equalsIgnoreCase("S"));
+		layer.setLayerName(layerName != null && !layerName.isEmpty() ? layerName : null);
+		return layer;
+	}
+	// spotless:on
 
     /**
      * Method used to check if the database connection is valid
@@ -114,6 +174,21 @@ public class IntersectSettings extends Logger {
 				&& databaseConf.getPassword() != null && !databaseConf.getPassword().isEmpty()) {
 
 			databaseConnection = new Database(databaseConf.getUrl(), databaseConf.getUsername(), databaseConf.getPassword());
+			if (databaseConf.getPoolSize() > 0) {
+				databaseConnection.setPoolSize(databaseConf.getPoolSize());
+			}
+			if (databaseConf.getIdleTimeout() > 0) {
+				databaseConnection.setIdleTimeout(databaseConf.getIdleTimeout());
+			}
+			if (databaseConf.getValidationTimeout() > 0) {
+				databaseConnection.setValidationTimeout(databaseConf.getValidationTimeout());
+			}
+			if (databaseConf.getSearchRadius() > 0) {
+				databaseConnection.setSearchRadius(databaseConf.getSearchRadius());
+			}
+			if (databaseConf.getBatchSize() > 0) {
+				databaseConnection.setBatchSize(databaseConf.getBatchSize());
+			}
 			return true;
 
 		} else {
@@ -0,0 +1,38 @@
+package com.geocode.search.settings;
+
+import com.geocode.search.yaml.YamlStructure;
+import lombok.*;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricsSettings {
+
+    private boolean enabled = true;
+    private long interval = 10;
+    private String path;
+
+    /**
+     * Method used to read yaml configuration parameters
+     * @param yaml configuration properties
+     */
+    public void readConfigFromYaml(YamlStructure yaml) {
+        path = (yaml.getOutputFile() != null ? yaml.getOutputFile() : "geo-tools") + ".metrics";
+
+        YamlStructure.MetricsConf metricsConf = yaml.getMetrics();
+        if (metricsConf == null) {
+            return;
+        }
+
+        if (metricsConf.getEnabled() != null) {
+            enabled = metricsConf.getEnabled().equalsIgnoreCase("S");
+        }
+        if (metricsConf.getInterval() > 0) {
+            interval = metricsConf.getInterval();
+        }
+        if (metricsConf.getPath() != null && !metricsConf.getPath().isEmpty()) {
+            path = metricsConf.getPath();
+        }
+    }
+}
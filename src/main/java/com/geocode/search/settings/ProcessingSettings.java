@@ -0,0 +1,56 @@
+package com.geocode.search.settings;
+
+import com.geocode.search.yaml.YamlStructure;
+import lombok.*;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessingSettings {
+
+    private int chunkSize = 1000;
+    private int queueSize = 64;
+    private boolean preserveOrder = false;
+    private String inputMode = "stream";
+    private long rangeSize = 8 << 20;
+    private String executor = "platform";
+    private int maxConcurrency = 64;
+    private boolean spatialOrder = false;
+
+    /**
+     * Method used to read yaml configuration parameters
+     * @param yaml configuration properties
+     */
+    public void readConfigFromYaml(YamlStructure yaml) {
+        YamlStructure.ProcessingConf processingConf = yaml.getProcessing();
+        if (processingConf == null) {
+            return;
+        }
+
+        if (processingConf.getChunkSize() > 0) {
+            chunkSize = processingConf.getChunkSize();
+        }
+        if (processingConf.getQueueSize() > 0) {
+            queueSize = processingConf.getQueueSize();
+        }
+        if (processingConf.getPreserveOrder() != null) {
+            preserveOrder = processingConf.getPreserveOrder().equalsIgnoreCase("S");
+        }
+        if (processingConf.getInputMode() != null && processingConf.getInputMode().equalsIgnoreCase("mapped")) {
+            inputMode = "mapped";
+        }
+        if (processingConf.getRangeSize() > 0) {
+            rangeSize = processingConf.getRangeSize();
+        }
+        if (processingConf.getExecutor() != null && processingConf.getExecutor().equalsIgnoreCase("virtual")) {
+            executor = "virtual";
+        }
+        if (processingConf.getMaxConcurrency() > 0) {
+            maxConcurrency = processingConf.getMaxConcurrency();
+        }
+        if (processingConf.getSpatialOrder() != null) {
+            spatialOrder = processingConf.getSpatialOrder().equalsIgnoreCase("S");
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.geocode.search.settings;
+
+import static com.geocode.search.message.Alert.*;
+
+import com.geocode.search.logging.Logger;
+import com.geocode.search.yaml.YamlStructure;
+import lombok.*;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServerSettings extends Logger {
+
+    private String host = "127.0.0.1";
+    private int port = 8080;
+    private int threads = 1;
+    private int maxRecords = 100000;
+
+    /**
+     * Method used to read yaml configuration parameters
+     * @param yaml configuration properties
+     * @param threads number of threads given on the command line, used when the section does not set them
+     * @return boolean value indicating whether the parameters are correct
+     */
+    public boolean readConfigFromYaml(YamlStructure yaml, int threads) {
+        this.threads = Math.max(1, threads);
+
+        YamlStructure.ServerConf serverConf = yaml.getServer();
+        if (serverConf == null) {
+            return true;
+        }
+
+        if (serverConf.getHost() != null && !serverConf.getHost().isEmpty()) {
+            host = serverConf.getHost();
+        }
+        if (serverConf.getPort() != null) {
+            if (serverConf.getPort() < 0) {
+                printError(SERVER_PORT_INVALID.description);
+                return false;
+            }
+            port = serverConf.getPort();
+        }
+        if (serverConf.getThreads() > 0) {
+            this.threads = serverConf.getThreads();
+        }
+        if (serverConf.getMaxRecords() > 0) {
+            maxRecords = serverConf.getMaxRecords();
+        }
+        return true;
+    }
+}
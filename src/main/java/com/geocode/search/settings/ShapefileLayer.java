@@ -0,0 +1,18 @@
+package com.geocode.search.settings;
+
+import java.io.File;
+import java.util.ArrayList;
+import lombok.*;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShapefileLayer {
+
+    private File path;
+    private ArrayList<String> data = new ArrayList<>();
+    private int gridResolution;
+    private boolean snapshot;
+    private String layerName;
+}
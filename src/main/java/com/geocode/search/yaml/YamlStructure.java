@@ -1,5 +1,6 @@
 package com.geocode.search.yaml;
 
+import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -19,6 +20,12 @@ public class YamlStructure {
     private int columnY;
     private int coordinateType;
     private IntersectConf intersect;
+    private ProcessingConf processing;
+    private OutputConf output;
+    private CacheConf cache;
+    private MetricsConf metrics;
+    private CheckpointConf checkpoint;
+    private ServerConf server;
 
     @Getter
     @Setter
@@ -38,6 +45,22 @@ public class YamlStructure {
     @AllArgsConstructor
     public static class ShapefileConf {
         private String path;
+        private int gridResolution;
+        private String snapshot;
+        private String layer;
+        private List<LayerConf> layers;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LayerConf {
+        private String path;
+        private String data;
+        private int gridResolution;
+        private String snapshot;
+        private String layer;
     }
 
     @Getter
@@ -48,6 +71,11 @@ public class YamlStructure {
         private String url;
         private String username;
         private String password;
+        private int poolSize;
+        private int idleTimeout;
+        private int validationTimeout;
+        private double searchRadius;
+        private int batchSize;
     }
 
     @Getter
@@ -61,4 +89,75 @@ public class YamlStructure {
         private double candidates;
         private double maxDistance;
     }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProcessingConf {
+        private int chunkSize;
+        private int queueSize;
+        private String preserveOrder;
+        private String inputMode;
+        private long rangeSize;
+        private String executor;
+        private int maxConcurrency;
+        private String spatialOrder;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OutputConf {
+        private int bufferSize;
+        private long flushInterval;
+        private String compression;
+        private int compressionLevel;
+        private int blockSize;
+        private int compressionThreads;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CacheConf {
+        private String enabled;
+        private Integer precision;
+        private int size;
+        private String policy;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MetricsConf {
+        private String enabled;
+        private long interval;
+        private String path;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CheckpointConf {
+        private String enabled;
+        private long rows;
+        private long interval;
+        private String path;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ServerConf {
+        private String host;
+        private Integer port;
+        private int threads;
+        private int maxRecords;
+    }
 }
@@ -0,0 +1,177 @@
+package com.geocode.search.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.geocode.search.cli.Parameters;
+import com.geocode.search.message.Alert;
+import com.geocode.search.service.LookupException;
+import com.geocode.search.service.Process;
+import com.geocode.search.service.input.CoordinateScanner;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Requests sent over localhost to a server listening on an ephemeral port. The lookup is replaced by a process
+ * echoing the records, so the test needs neither layers nor a database.
+ */
+class LookupServerTest {
+
+    private static final int MAX_RECORDS = 3;
+
+    private static LookupServer server;
+    private static HttpClient client;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void start() {
+        Parameters parameters = new Parameters();
+        parameters.getFileSettings().setDelimiter(";");
+        parameters.getFileSettings().setColumnX(0);
+        parameters.getFileSettings().setColumnY(1);
+        parameters.getFileSettings().setCoordinateScanner(new CoordinateScanner(";", 0, 1));
+        parameters.getServerSettings().setPort(0);
+        parameters.getServerSettings().setThreads(2);
+        parameters.getServerSettings().setMaxRecords(MAX_RECORDS);
+
+        server = new LookupServer(parameters, new EchoProcess());
+        assertTrue(server.start());
+        client = HttpClient.newHttpClient();
+        baseUrl = "http://127.0.0.1:" + server.getPort();
+    }
+
+    @AfterAll
+    static void stop() {
+        server.stop();
+    }
+
+    @Test
+    void listensOnEphemeralPort() {
+        assertTrue(server.getPort() > 0);
+    }
+
+    @Test
+    void getLooksUpSinglePoint() throws Exception {
+        HttpResponse<String> response = get("/lookup?x=9.19&y=45.46");
+        assertEquals(200, response.statusCode());
+        assertEquals("9.19;45.46;found\n", response.body());
+    }
+
+    @Test
+    void postLooksUpBatchSkippingEmptyLines() throws Exception {
+        HttpResponse<String> response = post("/lookup", "9.19;45.46;a\n\n12.49;41.89;b\n");
+        assertEquals(200, response.statusCode());
+        assertEquals("9.19;45.46;a;found\n12.49;41.89;b;found\n", response.body());
+    }
+
+    @Test
+    void postWithoutRecordsIsEmpty() throws Exception {
+        HttpResponse<String> response = post("/lookup", "");
+        assertEquals(200, response.statusCode());
+        assertEquals("", response.body());
+    }
+
+    @Test
+    void healthAnswersOk() throws Exception {
+        HttpResponse<String> response = get("/health");
+        assertEquals(200, response.statusCode());
+        assertEquals("OK\n", response.body());
+    }
+
+    @Test
+    void otherMethodsAreNotAllowed() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/lookup"))
+                .PUT(HttpRequest.BodyPublishers.ofString("9.19;45.46"))
+                .build();
+        assertEquals(405, send(request).statusCode());
+    }
+
+    @Test
+    void missingCoordinateIsBadRequest() throws Exception {
+        assertEquals(400, get("/lookup?x=9.19").statusCode());
+        assertEquals(400, get("/lookup").statusCode());
+    }
+
+    @Test
+    void invalidCoordinateIsBadRequest() throws Exception {
+        HttpResponse<String> response = get("/lookup?x=abc&y=45.46");
+        assertEquals(400, response.statusCode());
+        assertEquals("Invalid coordinates in record 1\n", response.body());
+
+        response = post("/lookup", "9.19;45.46\n12.49;north\n");
+        assertEquals(400, response.statusCode());
+        assertEquals("Invalid coordinates in record 2\n", response.body());
+    }
+
+    @Test
+    void tooManyRecordsAreRefused() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i <= MAX_RECORDS; i++) {
+            body.append("9.19;45.46\n");
+        }
+        HttpResponse<String> response = post("/lookup", body.toString());
+        assertEquals(413, response.statusCode());
+        assertEquals("More than " + MAX_RECORDS + " records\n", response.body());
+    }
+
+    @Test
+    void lookupErrorsDoNotStopServer() throws Exception {
+        HttpResponse<String> response = get("/lookup?x=" + EchoProcess.UNPROJECTABLE_X + "&y=0");
+        assertEquals(400, response.statusCode());
+        assertEquals(Alert.ERROR_TRANSFORM_COORDINATES.description + "\n", response.body());
+
+        response = get("/lookup?x=" + EchoProcess.FAILING_X + "&y=0");
+        assertEquals(500, response.statusCode());
+        assertEquals(Alert.ERROR_EXTRACT_DATA_DATABASE.description + "\n", response.body());
+
+        assertEquals(200, get("/health").statusCode());
+        assertEquals(200, get("/lookup?x=9.19&y=45.46").statusCode());
+    }
+
+    private static HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build());
+    }
+
+    private static HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+    }
+
+    private static HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Process answering each record with the record itself followed by "found", failing like a lookup
+     * for two reserved coordinates
+     */
+    private static class EchoProcess extends Process {
+
+        static final String UNPROJECTABLE_X = "999";
+        static final String FAILING_X = "500";
+
+        @Override
+        public byte[] processChunk(List<String> lines) {
+            StringBuilder output = new StringBuilder();
+            for (String line : lines) {
+                if (line.startsWith(UNPROJECTABLE_X + ";")) {
+                    throw new LookupException(Alert.ERROR_TRANSFORM_COORDINATES, null, true);
+                }
+                if (line.startsWith(FAILING_X + ";")) {
+                    throw new LookupException(Alert.ERROR_EXTRACT_DATA_DATABASE, null, false);
+                }
+                output.append(line).append(";found\n");
+            }
+            return output.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}